@@ -0,0 +1,177 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import benchmark.EngineOperations;
+
+/**
+ * Runs the engine operations that EngineBenchmark times on one of a suite of
+ * opening, middlegame and endgame positions: the move generation of each
+ * type of Piece, check detection, legal move generation of a whole
+ * Position, leaf evaluation and a fixed depth search.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class EngineBenchmarkOperations implements EngineOperations
+{
+	// The positions to benchmark by name
+	private static final String[][] POSITIONS = {
+			{ "opening", Position.START_FEN },
+			{ "middlegame1", "r1bakab1r/9/1cn3nc1/p1p1p1p1p/9/2P6/"
+					+ "P3P1P1P/1C2C1N2/9/RNBAKAB1R b" },
+			{ "middlegame2", "2bakab2/9/2n1c1n2/p3p1p1p/2p6/6P2/"
+					+ "P1P1P3P/2N1C1N2/4A4/2BAK1B2 w" },
+			{ "middlegame3", "r2akab2/9/1cn1b1n2/p1p1p1p1p/9/2P3P2/"
+					+ "P3P3P/N1C1B1N2/9/R2AKAB2 w" },
+			{ "endgame1", "3ak4/4a4/4b4/9/9/9/9/4B4/4A4/2R1KA3 w" },
+			{ "endgame2", "4k4/9/3a5/4p4/9/9/9/4B4/4A4/3NK4 w" },
+			{ "endgame3", "3k5/4a4/5a3/9/2b6/9/9/3C5/4p4/4K4 w" } };
+
+	// The piece types whose move generation is benchmarked
+	private static final String[] PIECE_NAMES = { "", "General", "Advisor",
+			"Elephant", "Horse", "Chariot", "Cannon", "Soldier" };
+
+	// The position, the side to move and a move list for it
+	private Position position;
+	private int side;
+	private int[] moves;
+
+	// The position set up with Pieces, both generals and the Pieces of the
+	// benchmarked type
+	private ChessPoint[][] board;
+	private ChessPoint[] posOfGeneral;
+	private General[] generals;
+	private List<Piece> pieces;
+
+	// The Computer that searches to a fixed depth
+	private Computer computer;
+
+	/**
+	 * Sets up the named position as a Position and on a board of Pieces.
+	 * @param name the name of the position, such as "middlegame1"
+	 * @throws IllegalArgumentException if there is no position with the name
+	 */
+	public void setUp(String name)
+	{
+		String fen = null;
+		for (String[] named : POSITIONS)
+			if (named[0].equals(name))
+				fen = named[1];
+		if (fen == null)
+			throw new IllegalArgumentException("Unknown position: " + name);
+
+		position = new Position(fen);
+		side = position.getSideToMove();
+		moves = new int[Position.MAX_MOVES];
+
+		board = new ChessPoint[GamePanel.NO_OF_ROWS][GamePanel.NO_OF_COLS];
+		for (int row = 0; row < GamePanel.NO_OF_ROWS; row++)
+			for (int col = 0; col < GamePanel.NO_OF_COLS; col++)
+				board[row][col] = new ChessPoint(row, col);
+		posOfGeneral = new ChessPoint[2];
+		position.setUpBoard(board, posOfGeneral);
+		generals = new General[] {
+				(General) posOfGeneral[Piece.RED].getPiece(),
+				(General) posOfGeneral[Piece.BLACK].getPiece() };
+		pieces = new ArrayList<Piece>();
+	}
+
+	/**
+	 * Collects the Pieces of a type from the board for pieceMoves.
+	 * @param pieceType the name of the Piece class, such as "Horse"
+	 * @throws IllegalArgumentException if there is no type with the name
+	 */
+	public void setPieceType(String pieceType)
+	{
+		int type = 1;
+		while (type < PIECE_NAMES.length
+				&& !PIECE_NAMES[type].equals(pieceType))
+			type++;
+		if (type == PIECE_NAMES.length)
+			throw new IllegalArgumentException("Unknown piece type: "
+					+ pieceType);
+
+		pieces = new ArrayList<Piece>();
+		for (ChessPoint[] row : board)
+			for (ChessPoint point : row)
+				if (point.hasPiece()
+						&& Position.typeOf(point.getPiece()) == type)
+					pieces.add(point.getPiece());
+	}
+
+	/**
+	 * Makes a Computer for the side to move that searches to a fixed depth.
+	 * @param depth the depth of the search
+	 */
+	public void setDepth(int depth)
+	{
+		computer = new Computer(side, depth);
+	}
+
+	/**
+	 * Generates the legal moves of every collected Piece on the board.
+	 * @return the total number of moves
+	 */
+	public int pieceMoves()
+	{
+		int count = 0;
+		for (Piece piece : pieces)
+			count += piece.generateMoves(true).size();
+		return count;
+	}
+
+	/**
+	 * Checks both generals for check on the board of Pieces.
+	 * @return the number of generals in check
+	 */
+	public int checkForCheck()
+	{
+		int checks = 0;
+		for (int colour = Piece.RED; colour <= Piece.BLACK; colour++)
+			if (generals[colour].checkForCheck(posOfGeneral[colour]))
+				checks++;
+		return checks;
+	}
+
+	/**
+	 * Checks both generals for check in the Position.
+	 * @return the number of generals in check
+	 */
+	public int isChecked()
+	{
+		int checks = 0;
+		for (int colour = Piece.RED; colour <= Piece.BLACK; colour++)
+			if (position.isChecked(colour))
+				checks++;
+		return checks;
+	}
+
+	/**
+	 * Generates the legal moves of the Position.
+	 * @return the number of moves
+	 */
+	public int generateMoves()
+	{
+		return position.generateMoves(moves);
+	}
+
+	/**
+	 * Evaluates the Position for the side to move.
+	 * @return the value of the position
+	 */
+	public int evaluate()
+	{
+		return position.evaluate(side);
+	}
+
+	/**
+	 * Searches a copy of the Position with the Computer, clearing the
+	 * transposition table first so that every search does the same work.
+	 * @return the packed best move
+	 */
+	public int bestMove()
+	{
+		computer.getTranspositionTable().clear();
+		return computer.bestMove(new Position(position), false);
+	}
+}
@@ -0,0 +1,114 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import benchmark.EvaluationTerms;
+
+/**
+ * Calculates the mobility term of the evaluation and the old flexibility
+ * value on a set of positions from random games, for MobilityBenchmark to
+ * time. Run on its own, it reports how often each term tells the two sides
+ * apart, which JMH cannot: java -cp build/classes/java/main:build/classes/
+ * java/jmh MobilityBenchmarkTerms [positions]
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class MobilityBenchmarkTerms implements EvaluationTerms
+{
+	// Games are cut off after this many moves
+	private static final int MAX_GAME_LENGTH = 150;
+
+	private Position[] positions;
+
+	/**
+	 * Reports how often each term is not 0 and how many different values
+	 * it has.
+	 * @param args the number of positions
+	 */
+	public static void main(String[] args)
+	{
+		int noOfPositions = 1000;
+		if (args.length > 0)
+			noOfPositions = Integer.parseInt(args[0]);
+
+		MobilityBenchmarkTerms terms = new MobilityBenchmarkTerms();
+		terms.setUp(noOfPositions);
+		System.out.printf("%-12s %10s %10s%n", "Term", "Non-zero",
+				"Distinct");
+		terms.report("Flexibility", false);
+		terms.report("Mobility", true);
+	}
+
+	/**
+	 * Plays random games from the starting position with a fixed seed and
+	 * keeps each position, copied from its FEN, until there are enough.
+	 * @param noOfPositions the number of positions to collect
+	 */
+	public void setUp(int noOfPositions)
+	{
+		Random random = new Random(20151220);
+		List<Position> collected = new ArrayList<Position>(noOfPositions);
+		int[] moves = new int[Position.MAX_MOVES];
+		while (collected.size() < noOfPositions)
+		{
+			Position position = new Position(Position.START_FEN);
+			for (int move = 0; move < MAX_GAME_LENGTH
+					&& collected.size() < noOfPositions; move++)
+			{
+				int count = position.generateMoves(moves);
+				if (count == 0)
+					break;
+				position.makeMove(moves[random.nextInt(count)]);
+				collected.add(new Position(position.toFen()));
+			}
+		}
+		positions = collected.toArray(new Position[noOfPositions]);
+	}
+
+	/**
+	 * Calculates the mobility term of one of the positions.
+	 * @param index the index of the position
+	 * @return red's mobility minus black's
+	 */
+	public int mobility(int index)
+	{
+		return positions[index].getMobilityValue(Piece.RED)
+				- positions[index].getMobilityValue(Piece.BLACK);
+	}
+
+	/**
+	 * Calculates the old flexibility value of one of the positions.
+	 * @param index the index of the position
+	 * @return red's flexibility minus black's
+	 */
+	public int flexibility(int index)
+	{
+		return positions[index].getFlexibilityValue(Piece.RED)
+				- positions[index].getFlexibilityValue(Piece.BLACK);
+	}
+
+	/**
+	 * Prints how often one of the terms is not 0 and how many different
+	 * values it has.
+	 * @param name the name of the term
+	 * @param mobility true for the mobility term, false for the flexibility
+	 *            value
+	 */
+	private void report(String name, boolean mobility)
+	{
+		int nonZero = 0;
+		Set<Integer> values = new HashSet<Integer>();
+		for (int index = 0; index < positions.length; index++)
+		{
+			int value = mobility ? mobility(index) : flexibility(index);
+			if (value != 0)
+				nonZero++;
+			values.add(value);
+		}
+		System.out.printf("%-12s %9.1f%% %10d%n", name, 100.0 * nonZero
+				/ positions.length, values.size());
+	}
+}
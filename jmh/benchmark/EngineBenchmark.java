@@ -0,0 +1,139 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the parts of the engine that decide how fast the AI plays: the
+ * move generation of each type of Piece, check detection, legal move
+ * generation of a whole Position, leaf evaluation and a fixed depth search.
+ * Every benchmark is run on a suite of opening, middlegame and endgame
+ * positions. JMH warms each one up and then times it over several iterations
+ * in a forked JVM. Run with: gradle jmh -Pjmh=EngineBenchmark (the results
+ * are written as JSON to build/results/jmh/results.json so that they can be
+ * compared between versions).
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class EngineBenchmark
+{
+	/**
+	 * The engine operations on one of the positions.
+	 */
+	@State(Scope.Thread)
+	public static class Operations
+	{
+		@Param({ "opening", "middlegame1", "middlegame2", "middlegame3",
+				"endgame1", "endgame2", "endgame3" })
+		public String position;
+
+		EngineOperations operations;
+
+		/**
+		 * Loads the operations and sets up the position.
+		 * @throws ReflectiveOperationException if the operations cannot be
+		 *             loaded
+		 */
+		@Setup
+		public void setUp() throws ReflectiveOperationException
+		{
+			operations = (EngineOperations) Class.forName(
+					EngineOperations.IMPLEMENTATION).getDeclaredConstructor()
+					.newInstance();
+			operations.setUp(position);
+		}
+	}
+
+	/**
+	 * The engine operations with the type of Piece whose move generation is
+	 * timed (only used by pieceMoves so that the other benchmarks are not
+	 * run once per type).
+	 */
+	public static class PieceOperations extends Operations
+	{
+		@Param({ "General", "Advisor", "Elephant", "Horse", "Chariot",
+				"Cannon", "Soldier" })
+		public String type;
+
+		/**
+		 * Sets the type (after the position is set up).
+		 */
+		@Setup
+		public void setUpType()
+		{
+			operations.setPieceType(type);
+		}
+	}
+
+	/**
+	 * The engine operations with the depth of the search (only used by
+	 * bestMove).
+	 */
+	public static class SearchOperations extends Operations
+	{
+		@Param({ "4" })
+		public int depth;
+
+		/**
+		 * Sets the depth (after the position is set up).
+		 */
+		@Setup
+		public void setUpDepth()
+		{
+			operations.setDepth(depth);
+		}
+	}
+
+	@Benchmark
+	public int pieceMoves(PieceOperations operations)
+	{
+		return operations.operations.pieceMoves();
+	}
+
+	@Benchmark
+	public int checkForCheck(Operations operations)
+	{
+		return operations.operations.checkForCheck();
+	}
+
+	@Benchmark
+	public int isChecked(Operations operations)
+	{
+		return operations.operations.isChecked();
+	}
+
+	@Benchmark
+	public int generateMoves(Operations operations)
+	{
+		return operations.operations.generateMoves();
+	}
+
+	@Benchmark
+	public int evaluate(Operations operations)
+	{
+		return operations.operations.evaluate();
+	}
+
+	@Benchmark
+	public int bestMove(SearchOperations operations)
+	{
+		return operations.operations.bestMove();
+	}
+}
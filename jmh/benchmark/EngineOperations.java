@@ -0,0 +1,79 @@
+package benchmark;
+
+/**
+ * The engine operations that EngineBenchmark times, on one position. JMH
+ * only runs benchmarks in a named package, while the engine is in the default
+ * package where a named package cannot reach it, so the operations are
+ * implemented by EngineBenchmarkOperations in the default package and loaded
+ * by name. Each call is a single monomorphic interface call, which the JIT
+ * compiler inlines.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public interface EngineOperations
+{
+	/**
+	 * The name of the class that implements the operations.
+	 */
+	String IMPLEMENTATION = "EngineBenchmarkOperations";
+
+	/**
+	 * Sets up a position to run the operations on.
+	 * @param position the name of the position
+	 * @throws IllegalArgumentException if the position is not known
+	 */
+	void setUp(String position);
+
+	/**
+	 * Sets the type of Piece whose moves are generated by pieceMoves.
+	 * @param pieceType the name of the type, such as "Horse"
+	 * @throws IllegalArgumentException if the type is not known
+	 */
+	void setPieceType(String pieceType);
+
+	/**
+	 * Sets the depth of the bestMove search.
+	 * @param depth the depth
+	 */
+	void setDepth(int depth);
+
+	/**
+	 * Generates the moves of each Piece of the piece type (including the
+	 * legality checks). There are no moves if the position has no Pieces of
+	 * the type.
+	 * @return the number of moves
+	 */
+	int pieceMoves();
+
+	/**
+	 * Checks whether each general is in check with the Pieces.
+	 * @return the number of generals in check
+	 */
+	int checkForCheck();
+
+	/**
+	 * Checks whether each general is in check with the Position.
+	 * @return the number of generals in check
+	 */
+	int isChecked();
+
+	/**
+	 * Generates the legal moves of the whole position.
+	 * @return the number of moves
+	 */
+	int generateMoves();
+
+	/**
+	 * Evaluates the position as a leaf of the search.
+	 * @return the value for the side to move
+	 */
+	int evaluate();
+
+	/**
+	 * Searches the position to the set depth with an empty transposition
+	 * table.
+	 * @return the best packed move
+	 */
+	int bestMove();
+}
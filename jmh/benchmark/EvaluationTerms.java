@@ -0,0 +1,40 @@
+package benchmark;
+
+/**
+ * The evaluation terms that MobilityBenchmark times, on a set of positions.
+ * Like EngineOperations, it is implemented in the default package (by
+ * MobilityBenchmarkTerms) and loaded by name, since a named package cannot
+ * reach the engine.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public interface EvaluationTerms
+{
+	/**
+	 * The name of the class that implements the terms.
+	 */
+	String IMPLEMENTATION = "MobilityBenchmarkTerms";
+
+	/**
+	 * Collects the positions by playing random games from the starting
+	 * position (the same positions every time).
+	 * @param noOfPositions the number of positions to collect
+	 */
+	void setUp(int noOfPositions);
+
+	/**
+	 * Calculates the mobility term of a position from red's point of view.
+	 * @param index the index of the position
+	 * @return the difference between red's and black's mobility
+	 */
+	int mobility(int index);
+
+	/**
+	 * Calculates the old flexibility value of a position from red's point of
+	 * view.
+	 * @param index the index of the position
+	 * @return the difference between red's and black's flexibility
+	 */
+	int flexibility(int index);
+}
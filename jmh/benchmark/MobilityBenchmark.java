@@ -0,0 +1,69 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the mobility term of the evaluation against the old flexibility
+ * value. Both terms are timed on the same positions from random games, and
+ * each value goes to a Blackhole so that the JIT compiler cannot throw the
+ * work away. The scores are the time per leaf. Run with: gradle jmh
+ * -Pjmh=MobilityBenchmark
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class MobilityBenchmark
+{
+	// The number of positions each invocation goes through
+	private static final int POSITIONS = 1000;
+
+	private EvaluationTerms terms;
+
+	/**
+	 * Loads the terms and collects the positions.
+	 * @throws ReflectiveOperationException if the terms cannot be loaded
+	 */
+	@Setup
+	public void setUp() throws ReflectiveOperationException
+	{
+		terms = (EvaluationTerms) Class.forName(
+				EvaluationTerms.IMPLEMENTATION).getDeclaredConstructor()
+				.newInstance();
+		terms.setUp(POSITIONS);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POSITIONS)
+	public void mobility(Blackhole blackhole)
+	{
+		for (int index = 0; index < POSITIONS; index++)
+			blackhole.consume(terms.mobility(index));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POSITIONS)
+	public void flexibility(Blackhole blackhole)
+	{
+		for (int index = 0; index < POSITIONS; index++)
+			blackhole.consume(terms.flexibility(index));
+	}
+}
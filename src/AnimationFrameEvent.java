@@ -0,0 +1,35 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for drawing one frame of a move animation. It
+ * lasts while the frame is painted and also records how much later than
+ * planned the frame's timer fired, which shows when the Event Dispatch Thread
+ * was kept busy.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+@Name("ChineseChess.AnimationFrame")
+@Label("Animation Frame")
+@Category({ "Chinese Chess", "Rendering" })
+@Description("Painting one frame of a move animation")
+public class AnimationFrameEvent extends jdk.jfr.Event
+{
+	@Label("Piece")
+	public String piece;
+
+	@Label("Frame")
+	public int frame;
+
+	@Label("Frames")
+	public int frames;
+
+	@Label("Lateness")
+	@Description("How much longer than the frame delay since the last frame")
+	@Timespan(Timespan.NANOSECONDS)
+	public long lateness;
+}
@@ -20,7 +20,7 @@ public class Cannon extends Piece
 	// Variables to store this piece's piece value and positional values.
 	// These can be used to calculate this piece's numerical worth in a chess
 	// game.
-	public static int pieceValue = 290;
+	public static final int BASE_VALUE = 290;
 
 	final static int[][] BOARD_VALUE = { { 6, 4, 0, -10, -12, -10, 0, 4, 6 },
 			{ 2, 2, 0, -4, -14, -4, 0, 2, 2 },
@@ -44,13 +44,17 @@ public class Cannon extends Piece
 		// initializes this Piece's colour, piece value, and maximum number of
 		// moves (calculated by head)
 		this.colour = colour;
-		super.pieceValue = Cannon.pieceValue;
+		super.pieceValue = Cannon.BASE_VALUE;
 		this.maxMoves = 17;
 	}
 
-	public static void updatePieceValue(int noOfMoves)
+	/**
+	 * Updates this piece's value, which decays as the game goes on.
+	 * @param noOfMoves the number of moves made in this piece's game
+	 */
+	public void updatePieceValue(int noOfMoves)
 	{
-		pieceValue = 290 - noOfMoves / 3;
+		super.pieceValue = Cannon.BASE_VALUE - noOfMoves / 3;
 	}
 
 	/**
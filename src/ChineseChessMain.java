@@ -55,7 +55,7 @@ public class ChineseChessMain extends JFrame implements ActionListener
 	private MainMenu mainMenu;
 	private Instructions instructions;
 	private JMenuItem returnToMenuOption, newGameOption, undoOption,
-			quitOption, aboutOption, howToPlayOption;
+			moveNowOption, quitOption, aboutOption, howToPlayOption;
 	private JMenu themeMenu;
 	JRadioButtonMenuItem traditionalButton, spaceButton;
 
@@ -110,19 +110,26 @@ public class ChineseChessMain extends JFrame implements ActionListener
 
 		undoOption = new JMenuItem("Undo Move");
 		undoOption.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z,
-				InputEvent.CTRL_MASK));
+				InputEvent.CTRL_DOWN_MASK));
 		undoOption.addActionListener(this);
 		undoOption.setEnabled(false);
 		newGameOption.setVisible(false);
 
+		moveNowOption = new JMenuItem("Move Now");
+		moveNowOption.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_M,
+				InputEvent.CTRL_DOWN_MASK));
+		moveNowOption.addActionListener(this);
+		moveNowOption.setEnabled(false);
+
 		quitOption = new JMenuItem("Exit");
 		quitOption.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_E,
-				InputEvent.CTRL_MASK));
+				InputEvent.CTRL_DOWN_MASK));
 		quitOption.addActionListener(this);
 
 		// Add the game menu items in preferred order
 		gameMenu.add(returnToMenuOption);
 		gameMenu.add(undoOption);
+		gameMenu.add(moveNowOption);
 		gameMenu.addSeparator();
 		gameMenu.add(quitOption);
 		menuBar.add(gameMenu);
@@ -165,7 +172,10 @@ public class ChineseChessMain extends JFrame implements ActionListener
 	{
 		// Change and update the state
 		if (state == GAME)
+		{
+			gamePanel.stopGame();
 			remove(gamePanel.removeBorders());
+		}
 		else if (state == HELP)
 			remove(instructions);
 		state = MENU;
@@ -175,6 +185,7 @@ public class ChineseChessMain extends JFrame implements ActionListener
 		add(mainMenu, BorderLayout.CENTER);
 		returnToMenuOption.setVisible(false);
 		undoOption.setVisible(false);
+		moveNowOption.setVisible(false);
 		themeMenu.setVisible(false);
 		howToPlayOption.setVisible(true);
 		revalidate();
@@ -203,7 +214,10 @@ public class ChineseChessMain extends JFrame implements ActionListener
 			if (state == MENU)
 				remove(mainMenu);
 			else if (state == GAME)
+			{
+				gamePanel.stopGame();
 				remove(gamePanel);
+			}
 			else if (state == HELP)
 				remove(instructions);
 			state = GAME;
@@ -212,19 +226,20 @@ public class ChineseChessMain extends JFrame implements ActionListener
 			if (gameMode == GAMEMODES[0])
 				gamePanel = new GamePanel(this, false, 0);
 			else if (gameMode == GAMEMODES[1])
-				gamePanel = new GamePanel(this, true, 2);
+				gamePanel = new GamePanel(this, true, Computer.EASY);
 			else if (gameMode == GAMEMODES[2])
-				gamePanel = new GamePanel(this, true, 3);
+				gamePanel = new GamePanel(this, true, Computer.NORMAL);
 			else if (gameMode == GAMEMODES[3])
-				gamePanel = new GamePanel(this, true, 4);
+				gamePanel = new GamePanel(this, true, Computer.HARD);
 			else
-				gamePanel = new GamePanel(this, true, 5);
+				gamePanel = new GamePanel(this, true, Computer.EXPERT);
 
 			// Add the GamePanel to the frame
 			add(gamePanel, BorderLayout.CENTER);
 			gamePanel.requestFocus();
 			returnToMenuOption.setVisible(true);
 			undoOption.setVisible(true);
+			moveNowOption.setVisible(gameMode != GAMEMODES[0]);
 			themeMenu.setVisible(true);
 			howToPlayOption.setVisible(false);
 			revalidate();
@@ -244,7 +259,10 @@ public class ChineseChessMain extends JFrame implements ActionListener
 		if (state == MENU)
 			remove(mainMenu);
 		else if (state == GAME)
+		{
+			gamePanel.stopGame();
 			remove(gamePanel.removeBorders());
+		}
 		state = HELP;
 
 		// Add the help panel to the frame
@@ -252,6 +270,7 @@ public class ChineseChessMain extends JFrame implements ActionListener
 		add(instructions, BorderLayout.CENTER);
 		returnToMenuOption.setVisible(true);
 		undoOption.setVisible(false);
+		moveNowOption.setVisible(false);
 		themeMenu.setVisible(false);
 		revalidate();
 		repaint();
@@ -284,6 +303,8 @@ public class ChineseChessMain extends JFrame implements ActionListener
 			if (!gamePanel.canUndo())
 				setUndoOption(false);
 		}
+		else if (event.getSource() == moveNowOption)
+			gamePanel.moveNow();
 		else if (event.getSource() == quitOption)
 			System.exit(0);
 		else if (event.getSource() == howToPlayOption)
@@ -318,6 +339,16 @@ public class ChineseChessMain extends JFrame implements ActionListener
 		this.undoOption.setEnabled(canUndo);
 	}
 
+	/**
+	 * Sets the move now menu option (to stop the AI's search) to true or false
+	 * @param canMoveNow true to enable the move now option and false to
+	 *            disable it
+	 */
+	public void setMoveNowOption(boolean canMoveNow)
+	{
+		this.moveNowOption.setEnabled(canMoveNow);
+	}
+
 	public static void main(String[] args)
 	{
 		ChineseChessMain frame = new ChineseChessMain();
@@ -1,20 +1,53 @@
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Keeps track of a Computer Player. It can make its best move and has access to
- * the whole board and the other player's pieces.
+ * the whole board and the other player's pieces. The search itself runs on a
+ * Position so that it only works with primitive arrays. The search deepens one
+ * generation at a time until it reaches its depth or runs out of time, and can
+ * use several threads that share one transposition table. While the opponent
+ * thinks, it can search the reply it expects from its principal variation
+ * (pondering).
  * 
  * @author Derrick Thai and Riddle Li
- * @version v3.1 Final, Last Updated: December 20, 2015
+ * @version v3.2, Last Updated: October 17, 2026
  */
 public class Computer extends Player
 {
-	// Give the computer access to the board and the other player's pieces
+	// Difficulty levels
+	public static final int EASY = 1;
+	public static final int NORMAL = 2;
+	public static final int HARD = 3;
+	public static final int EXPERT = 4;
+
+	// The nodes searched on each move at each difficulty level. Unlike a
+	// depth, a node budget costs about the same time in every position. The
+	// time limit only caps the budget on a slow machine.
+	private static final long[] LEVEL_NODES = { 0, 4000, 30000, 150000,
+			500000 };
+	private static final long LEVEL_TIME_LIMIT = 2000;
+
+	// The search depth, the time limit per move, the number of threads and
+	// the transposition table (kept between moves)
 	private int depth;
-	private ChessPoint[][] board;
-	private Player[] players;
-	private int currentPlayer;
+	private long timeLimit;
+	private long nodeLimit;
+	private int threads;
+	private boolean checkEvasions;
+	private boolean nullMovePruning = true;
+	private boolean lateMoveReductions = true;
+	private TranspositionTable table;
+	private OpeningBook book;
+	private Tablebase tablebase;
+	private SearchListener listener;
+
+	// The abort flag of the search that is running (if any)
+	private volatile AtomicBoolean abort;
+
+	// Information about the last search
+	private SearchStatistics statistics;
+	private int[] principalVariation;
+	private int ponderMove;
 
 	/**
 	 * Constructs a new Computer given its colour and difficultly.
@@ -22,260 +55,513 @@ public class Computer extends Player
 	 * @param difficulty the depth to search to
 	 */
 	public Computer(int colour, int difficulty)
+	{
+		this(colour, difficulty, 0);
+	}
+
+	/**
+	 * Constructs a new Computer given its colour, difficultly and the time it
+	 * can spend on each move.
+	 * @param colour the colour of the Computer
+	 * @param difficulty the maximum depth to search to
+	 * @param timeLimit the time to spend on each move in milliseconds (0 for no
+	 *            time limit)
+	 */
+	public Computer(int colour, int difficulty, long timeLimit)
 	{
 		super(colour);
 		depth = difficulty;
+		this.timeLimit = timeLimit;
+		threads = 1;
+		table = new TranspositionTable(TranspositionTable.DEFAULT_SIZE);
+		principalVariation = new int[0];
+		statistics = new SearchStatistics(SearchStatistics.SEARCH, 0);
 	}
 
 	/**
-	 * Finds the best move for the AI.
-	 * @param board the board of chess points
-	 * @param human the human player (to get its pieces)
-	 * @param random true if it randomly chooses the pick the second best move
-	 * @return the best move the computer can make
+	 * Constructs a new Computer that plays at the given difficulty level. Its
+	 * strength comes only from the number of nodes it searches on each move.
+	 * @param colour the colour of the Computer
+	 * @param level the difficulty level (EASY to EXPERT)
+	 * @return the Computer
 	 */
-	public Move bestMove(ChessPoint[][] board, Player human, boolean random)
+	public static Computer atLevel(int colour, int level)
 	{
-		this.board = board;
-		Move[] bestMoves = new Move[2];
-		int[] maxValues = { Integer.MIN_VALUE, Integer.MIN_VALUE };
+		Computer computer = new Computer(colour, Searcher.MAX_PLY - 1,
+				LEVEL_TIME_LIMIT);
+		computer.setNodeLimit(getLevelNodes(level));
+		return computer;
+	}
 
-		players = new Player[] { this, human };
-		currentPlayer = 0;
+	/**
+	 * Gets the number of nodes searched on each move at a difficulty level.
+	 * @param level the difficulty level (EASY to EXPERT)
+	 * @return the number of nodes
+	 */
+	public static long getLevelNodes(int level)
+	{
+		if (level < EASY || level > EXPERT)
+			throw new IllegalArgumentException("No difficulty level " + level);
+		return LEVEL_NODES[level];
+	}
 
-		Queue<Move> moves = generateMoves(board);
-		if (moves.size() < 2)
-		{
-			if (!moves.isEmpty())
-				bestMoves[0] = moves.remove();
-			return bestMoves[0];
-		}
+	/**
+	 * Sets the time the Computer can spend on each move.
+	 * @param timeLimit the time in milliseconds (0 for no time limit)
+	 */
+	public void setTimeLimit(long timeLimit)
+	{
+		this.timeLimit = timeLimit;
+	}
 
-		int noOfMoves = 0;
-		while (!moves.isEmpty())
-		{
-			Move move = moves.remove();
+	/**
+	 * Sets the maximum depth to search to.
+	 * @param depth the maximum depth
+	 */
+	public void setDepth(int depth)
+	{
+		this.depth = depth;
+	}
 
-			makeMove(move);
-			int value = alphaBetaMin(maxValues[0], Integer.MAX_VALUE, depth - 1);
-			undoMove(move);
+	/**
+	 * Sets the number of nodes the main search thread can search on each
+	 * move. The first iteration is always completed.
+	 * @param nodeLimit the number of nodes (0 for no node limit)
+	 */
+	public void setNodeLimit(long nodeLimit)
+	{
+		this.nodeLimit = nodeLimit;
+	}
 
-			if (noOfMoves == 0)
-			{
-				maxValues[0] = value;
-				bestMoves[0] = move;
-			}
-			else if (noOfMoves == 1)
-			{
-				if (value > maxValues[0])
-				{
-					maxValues[1] = maxValues[0];
-					bestMoves[1] = bestMoves[0];
-					maxValues[0] = value;
-					bestMoves[0] = move;
-				}
-				else
-				{
-					maxValues[1] = value;
-					bestMoves[1] = move;
-				}
-			}
-			else if (value > maxValues[0])
-			{
-				maxValues[0] = value;
-				bestMoves[0] = move;
-			}
-			else if (value > maxValues[1])
-			{
-				maxValues[1] = value;
-				bestMoves[1] = move;
-			}
-			noOfMoves++;
-		}
+	/**
+	 * Replaces the transposition table with an empty one of about the given
+	 * size.
+	 * @param megabytes the size in megabytes (rounded down to a power of two
+	 *            number of entries)
+	 */
+	public void setHashSize(int megabytes)
+	{
+		long entries = Math.max(2, ((long) megabytes << 20)
+				/ TranspositionTable.ENTRY_SIZE);
+		table = new TranspositionTable((int) Long.highestOneBit(Math.min(
+				entries, 1 << 30)));
+	}
 
-		if (random && (int) (Math.random() * depth) == 0)
-			return bestMoves[1];
-		else
-			return bestMoves[0];
+	/**
+	 * Gets the time the Computer can spend on each move.
+	 * @return the time in milliseconds (0 for no time limit)
+	 */
+	public long getTimeLimit()
+	{
+		return timeLimit;
 	}
 
 	/**
-	 * Generates all moves from the given board.
-	 * @param board the board of chess points
-	 * @return a queue of all moves
+	 * Sets the number of threads to search with. The extra threads search the
+	 * same root on their own copy of the position and share the
+	 * transposition table with the main thread.
+	 * @param threads the number of threads (at least 1)
 	 */
-	private Queue<Move> generateMoves(ChessPoint[][] board)
+	public void setThreads(int threads)
 	{
-		Queue<Move> moves = new PriorityQueue<Move>();
+		this.threads = Math.max(1, threads);
+	}
 
-		for (Piece piece : players[currentPlayer].getAlivePieces())
-			for (ChessPoint point : piece.generateMoves(true))
-				moves.add(new Move(piece.point, point, piece, point.getPiece()));
+	/**
+	 * Sets whether the quiescence search also tries every move when the side
+	 * to move is in check (instead of only captures).
+	 * @param checkEvasions true to search check evasions
+	 */
+	public void setCheckEvasions(boolean checkEvasions)
+	{
+		this.checkEvasions = checkEvasions;
+	}
 
-		return moves;
+	/**
+	 * Sets whether the search uses null move pruning (on by default).
+	 * @param nullMovePruning true to prune with null moves
+	 */
+	public void setNullMovePruning(boolean nullMovePruning)
+	{
+		this.nullMovePruning = nullMovePruning;
 	}
 
 	/**
-	 * Calculates the board value of the current game situation with an
-	 * evaluation function. This value is 0 based, negative values are assigned
-	 * to red while positive values are assigned to black.
-	 * 
-	 * @return the board value of the current game situation.
+	 * Sets whether the search uses late move reductions (on by default).
+	 * @param lateMoveReductions true to reduce late moves
 	 */
-	private int getBoardValue()
+	public void setLateMoveReductions(boolean lateMoveReductions)
 	{
-		int boardValue = 0;
-		// For each player, go through all their alive pieces.
-		for (Player eachPlayer : players)
-		{
-			double eachPlayerValue = 0;
-			for (Piece eachPiece : eachPlayer.getAlivePieces())
-			{
-				// Add in each piece's piece value, positional value and
-				// flexibility value
-				eachPlayerValue += eachPiece.getPieceValue()
-						+ eachPiece.getPositionValue()
-						+ eachPiece.getFlexibilityValue();
+		this.lateMoveReductions = lateMoveReductions;
+	}
 
-			}
-			// Add the value to the overall board value if the player is
-			// computer (black)
-			// Otherwise subtract it from the overall board value if the player
-			// is human (red)
-			if (eachPlayer instanceof Computer)
-				boardValue += (int) (eachPlayerValue);
-			else
-				boardValue -= (int) (eachPlayerValue);
-		}
-		// Calculates the central control value by going through the central
-		// region of the board.
-		// For each computer piece, add in 1/10th of that piece's piece value
-		// Do the same for human pieces, but subtract 1/10th of the piece's
-		// piece value
-		for (int row = 2; row <= 7; row++)
-		{
-			for (int col = 2; col <= 6; col++)
-			{
-				Piece piece = board[row][col].getPiece();
-				// Don't count generals
-				if (!(piece instanceof General))
-				{
-					if (piece != null && piece.colour == Piece.BLACK)
-						boardValue += piece.getPieceValue() / 10;
-					else if (piece != null && piece.colour == Piece.RED)
-						boardValue -= piece.getPieceValue() / 10;
-				}
+	/**
+	 * Sets the opening book to play from before searching.
+	 * @param book the opening book (null for none)
+	 */
+	public void setOpeningBook(OpeningBook book)
+	{
+		this.book = book;
+	}
 
-			}
-		}
-		return boardValue;
+	/**
+	 * Sets the endgame tablebase to play from once few pieces are left and to
+	 * look up during the search.
+	 * @param tablebase the tablebase (null for none)
+	 */
+	public void setTablebase(Tablebase tablebase)
+	{
+		this.tablebase = tablebase;
 	}
 
 	/**
-	 * Recursive alpha beta searching method for the maximizing player that
-	 * determines
-	 * @param alpha the minimum score that the maximizing player is assured of
-	 * @param beta the maximum score that the minimizing player is assured of
-	 * @param depth the number of generations that this current generation is
-	 *            away from the target depth
-	 * @return the maximizing player's best score
+	 * Sets the listener to tell about each completed iteration of the main
+	 * search thread.
+	 * @param listener the listener (null for none)
 	 */
-	int alphaBetaMax(int alpha, int beta, int depth)
+	public void setSearchListener(SearchListener listener)
 	{
-		// Once we reach the last generation, return the current board value all
-		// the way up the tree
-		if (depth == 0)
-			return getBoardValue();
-
-		// If there are no moves, return a very large negative value so that the
-		// minimizing player will chose this path
-		Queue<Move> moves = generateMoves(board);
-		if (moves.isEmpty())
-			return -9001;
-
-		int currentValue;
-		while (!moves.isEmpty())
-		{
-			Move move = moves.remove();
-			makeMove(move);
-			currentValue = alphaBetaMin(alpha, beta, depth - 1);
-			undoMove(move);
-
-			if (currentValue >= beta)
-				return beta;
-			if (currentValue > alpha)
-				alpha = currentValue;
-		}
-		return alpha;
+		this.listener = listener;
+	}
+
+	/**
+	 * Stops the search that is running (from another thread). The search
+	 * stops at once and returns the best move of the last completed
+	 * iteration (the first move in move order if none was completed). Does
+	 * nothing if no search is running.
+	 */
+	public void stop()
+	{
+		AtomicBoolean running = abort;
+		if (running != null)
+			running.set(true);
 	}
 
 	/**
-	 * The
-	 * @param alpha the minimum score that the maximizing player is assured of
-	 * @param beta the maximum score that the minimizing player is assured of
-	 * @param depth the number of generations that this current generation is
-	 *            away from the target depth
-	 * @return the minimizing player's best score
+	 * Gets the transposition table (to check its hit and miss rates).
+	 * @return the transposition table
 	 */
-	int alphaBetaMin(int alpha, int beta, int depth)
+	public TranspositionTable getTranspositionTable()
 	{
-		// Once we reach the last generation, return the current board value all
-		// the way up the tree
-		if (depth == 0)
-			return getBoardValue();
-
-		// If there are no moves, return a very large value so that the
-		// maximizing player will chose this path
-		Queue<Move> moves = generateMoves(board);
-		if (moves.isEmpty())
-			return 9001;
-
-		// Try every move out and keep track of the best score, if
-		int currentValue;
-		while (!moves.isEmpty())
+		return table;
+	}
+
+	/**
+	 * Gets the number of nodes searched by all threads in the last search.
+	 * @return the number of nodes
+	 */
+	public long getNodes()
+	{
+		return statistics.getNodes();
+	}
+
+	/**
+	 * Gets the fraction of the beta cutoffs in the last search (by all
+	 * threads) that came from the first move searched, which shows how good
+	 * the move ordering is.
+	 * @return the first move cutoff rate between 0 and 1
+	 */
+	public double getFirstMoveCutoffRate()
+	{
+		return statistics.getFirstMoveCutoffRate();
+	}
+
+	/**
+	 * Gets the statistics of the last search: nodes, cutoffs, transposition
+	 * table hits, and the nodes, time and branching factor of each iteration.
+	 * @return the statistics
+	 */
+	public SearchStatistics getStatistics()
+	{
+		return statistics;
+	}
+
+	/**
+	 * Gets the principal variation of the last search.
+	 * @return the packed moves of the principal variation
+	 */
+	public int[] getPrincipalVariation()
+	{
+		return principalVariation;
+	}
+
+	/**
+	 * Gets the reply that the last search expects the opponent to make to the
+	 * move it returned (the second move of the principal variation).
+	 * @return the packed move or 0 if the principal variation has no second
+	 *         move or the move came from the opening book or the tablebase
+	 */
+	public int getPonderMove()
+	{
+		return ponderMove;
+	}
+
+	/**
+	 * Finds the best move for the AI. Plays from the opening book or the
+	 * endgame tablebase if it can, otherwise searches to a depth of 1, 2,
+	 * 3... until the maximum depth is reached or the time runs out and
+	 * returns the best move from the last completed iteration.
+	 * @param board the board of chess points
+	 * @param human the human player (to get its pieces)
+	 * @param random true to pick between book moves at random by weight
+	 * @return the best move the computer can make
+	 */
+	public Move bestMove(ChessPoint[][] board, Player human, boolean random)
+	{
+		// Convert the board once so the search only works with primitives
+		int move = bestMove(new Position(board, getColour()), random);
+		if (move == 0)
+			return null;
+		return toMove(board, move);
+	}
+
+	/**
+	 * Finds the best move for the side to move in the given position.
+	 * @param position the position to search (left unchanged)
+	 * @param random true to pick between book moves at random by weight
+	 * @return the best packed move or 0 if there are no moves
+	 */
+	public int bestMove(Position position, boolean random)
+	{
+		return bestMove(position, random, new AtomicBoolean());
+	}
+
+	/**
+	 * Finds the best move for the side to move in the given position, which
+	 * can also be stopped with the given flag. The flag can be created (and
+	 * set) before the search starts, so that a stop that comes before the
+	 * search is not lost.
+	 * @param position the position to search (left unchanged)
+	 * @param random true to pick between book moves at random by weight
+	 * @param abort the flag that stops the search
+	 * @return the best packed move or 0 if there are no moves
+	 */
+	public int bestMove(Position position, boolean random,
+			AtomicBoolean abort)
+	{
+		long deadline = 0;
+		if (timeLimit > 0)
+			deadline = System.currentTimeMillis() + timeLimit;
+		return search(position, random, deadline, abort);
+	}
+
+	/**
+	 * Searches the position after the opponent's expected reply while the
+	 * opponent is thinking. There is no time limit, so it searches until the
+	 * maximum depth is reached or the given flag is set. Its results stay in
+	 * the transposition table even if the opponent plays another move.
+	 * @param position the position after the expected reply (left unchanged)
+	 * @param random true to pick between book moves at random by weight
+	 * @param abort the flag that stops the search
+	 * @return the best packed move or 0 if there are no moves
+	 */
+	public int ponder(Position position, boolean random, AtomicBoolean abort)
+	{
+		return search(position, random, 0, abort);
+	}
+
+	/**
+	 * Finds the move to play and records it for Java Flight Recorder as a
+	 * SearchEvent, followed by a SearchIterationEvent for each iteration.
+	 * @param position the position to search (left unchanged)
+	 * @param random true to pick between book moves at random by weight
+	 * @param deadline the time to stop at in milliseconds (0 for no deadline)
+	 * @param abort the flag that stops the search
+	 * @return the best packed move or 0 if there are no moves
+	 */
+	private int search(Position position, boolean random, long deadline,
+			AtomicBoolean abort)
+	{
+		// Publish the flag before anything else so that stop() works from
+		// the moment the search starts
+		this.abort = abort;
+		SearchEvent event = new SearchEvent();
+		event.begin();
+		int move;
+		try
+		{
+			move = findMove(position, random, deadline, abort);
+		}
+		finally
+		{
+			this.abort = null;
+		}
+		event.end();
+		if (event.shouldCommit())
 		{
-			Move move = moves.remove();
-			makeMove(move);
-			currentValue = alphaBetaMax(alpha, beta, depth - 1);
-			undoMove(move);
-
-			if (currentValue <= alpha)
-				return alpha;
-			if (currentValue < beta)
-				beta = currentValue;
+			event.source = statistics.getSource();
+			event.bestMove = move == 0 ? "" : Position.toIccs(move);
+			event.threads = statistics.getThreads();
+			event.depth = statistics.getCompletedDepth();
+			event.nodes = statistics.getNodes();
+			event.quiescenceNodes = statistics.getQuiescenceNodes();
+			event.nodesPerSecond = statistics.getNodesPerSecond();
+			event.cutoffs = statistics.getCutoffs();
+			event.firstMoveCutoffRate = statistics.getFirstMoveCutoffRate();
+			event.tableProbes = statistics.getTableProbes();
+			event.tableHits = statistics.getTableHits();
+			event.averageBranchingFactor = statistics
+					.getAverageBranchingFactor();
+			event.commit();
+
+			int completedDepth = statistics.getCompletedDepth();
+			for (int depth = 1; depth <= completedDepth; depth++)
+			{
+				SearchIterationEvent iteration = new SearchIterationEvent();
+				iteration.depth = depth;
+				iteration.nodes = statistics.getIterationNodes(depth);
+				iteration.iterationTime = statistics.getIterationTime(depth);
+				iteration.branchingFactor = depth == 1 ? 0 : statistics
+						.getBranchingFactor(depth);
+				iteration.commit();
+			}
 		}
-		return beta;
+		return move;
 	}
 
 	/**
-	 * Executes the given move, changing the current player.
-	 * @param move the move to make
+	 * Finds the move to play from the opening book, the tablebase or a
+	 * search with all of the threads, and keeps its statistics.
+	 * @param position the position to search (left unchanged)
+	 * @param random true to pick between book moves at random by weight
+	 * @param deadline the time to stop at in milliseconds (0 for no deadline)
+	 * @param abort the flag that stops the search
+	 * @return the best packed move or 0 if there are no moves
 	 */
-	private void makeMove(Move move)
+	private int findMove(Position position, boolean random, long deadline,
+			AtomicBoolean abort)
 	{
-		move.execute();
-		changePlayer();
+		long start = System.nanoTime();
+
+		// Play straight from the opening book if the position is in it
+		if (book != null)
+		{
+			int move = book.probe(position, random);
+			if (move != 0)
+			{
+				statistics = new SearchStatistics(SearchStatistics.BOOK,
+						System.nanoTime() - start);
+				principalVariation = new int[] { move };
+				ponderMove = 0;
+				return move;
+			}
+		}
+
+		// Play the fastest win or the slowest loss from the tablebase
+		if (tablebase != null)
+		{
+			int move = getTablebaseMove(position);
+			if (move != 0)
+			{
+				statistics = new SearchStatistics(SearchStatistics.TABLEBASE,
+						System.nanoTime() - start);
+				principalVariation = new int[] { move };
+				ponderMove = 0;
+				return move;
+			}
+		}
+
+		table.newSearch();
+
+		// Start the helper threads, half of them a generation ahead so that
+		// they fill the table with deeper results for the main thread
+		Searcher[] helpers = new Searcher[threads - 1];
+		Thread[] helperThreads = new Thread[threads - 1];
+		for (int helper = 0; helper < helpers.length; helper++)
+		{
+			helpers[helper] = new Searcher(new Position(position), table, abort);
+			helpers[helper].setDepths(1 + helper % 2, depth);
+			helpers[helper].setCheckEvasions(checkEvasions);
+			helpers[helper].setNullMovePruning(nullMovePruning);
+			helpers[helper].setLateMoveReductions(lateMoveReductions);
+			helpers[helper].setTablebase(tablebase);
+			helperThreads[helper] = new Thread(helpers[helper], "Searcher "
+					+ (helper + 1));
+			helperThreads[helper].setDaemon(true);
+			helperThreads[helper].start();
+		}
+
+		Searcher main = new Searcher(position, table, abort);
+		main.setDepths(1, depth);
+		main.setNodeLimit(nodeLimit);
+		main.setCheckEvasions(checkEvasions);
+		main.setNullMovePruning(nullMovePruning);
+		main.setLateMoveReductions(lateMoveReductions);
+		main.setTablebase(tablebase);
+		main.setSearchListener(listener);
+		int move = main.search(deadline);
+
+		// Stop the helpers and wait for them to finish
+		abort.set(true);
+		for (int helper = 0; helper < helpers.length; helper++)
+		{
+			try
+			{
+				helperThreads[helper].join();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+		statistics = new SearchStatistics(main, helpers, System.nanoTime()
+				- start);
+		principalVariation = main.getPrincipalVariation();
+
+		// The expected reply only follows the move from the principal variation
+		ponderMove = 0;
+		if (principalVariation.length >= 2 && principalVariation[0] == move)
+			ponderMove = principalVariation[1];
+		return move;
 	}
 
 	/**
-	 * Undos the given move, changing the current player.
-	 * @param move the move to undo
+	 * Finds the best move of a won or lost position from the tablebase. Drawn
+	 * positions are searched instead so that the search can pick between the
+	 * drawing moves.
+	 * @param position the position (left unchanged)
+	 * @return the packed move or 0 if the position is drawn or the tablebase
+	 *         does not have it or all of its replies
 	 */
-	private void undoMove(Move move)
+	private int getTablebaseMove(Position position)
 	{
-		move.undo();
-		changePlayer();
+		int score = tablebase.probe(position);
+		if (score == Tablebase.UNKNOWN || score == 0)
+			return 0;
+
+		int[] moves = new int[Position.MAX_MOVES];
+		int noOfMoves = position.generateMoves(moves);
+		int bestMove = 0;
+		int bestScore = Integer.MIN_VALUE;
+		for (int index = 0; index < noOfMoves; index++)
+		{
+			position.makeMove(moves[index]);
+			int reply = tablebase.probe(position);
+			position.unmakeMove(moves[index]);
+			if (reply == Tablebase.UNKNOWN)
+				return 0;
+			if (-reply > bestScore)
+			{
+				bestScore = -reply;
+				bestMove = moves[index];
+			}
+		}
+		return bestMove;
 	}
 
 	/**
-	 * Changes the current player to the other player.
+	 * Converts a packed move from the search back into a Move on the board.
+	 * @param board the board of chess points
+	 * @param move the packed move
+	 * @return the Move on the board
 	 */
-	private void changePlayer()
+	public Move toMove(ChessPoint[][] board, int move)
 	{
-		if (currentPlayer == Player.RED)
-			currentPlayer = Player.BLACK;
-		else
-			// currentPlayer == Player.BLACK
-			currentPlayer = Player.RED;
+		int from = Position.from(move);
+		int to = Position.to(move);
+		ChessPoint fromPoint = board[Position.row(from)][Position.column(from)];
+		ChessPoint toPoint = board[Position.row(to)][Position.column(to)];
+		return new Move(fromPoint, toPoint, fromPoint.getPiece(),
+				toPoint.getPiece());
 	}
 }
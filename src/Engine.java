@@ -0,0 +1,255 @@
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the Computer's searches on a background thread so that the Event
+ * Dispatch Thread is never blocked while the AI is thinking. Each search
+ * returns a CompletableFuture of the chosen Move, and the progress of each
+ * completed iteration is sent to a SearchListener. A search that is running
+ * can be stopped early, in which case it plays the best move found so far.
+ *
+ * After the Computer moves, the Engine can ponder: it searches the position
+ * after the reply the Computer expects while the opponent is thinking. If the
+ * opponent plays that reply, the ponder search becomes the Computer's search
+ * and is given the rest of the time limit counted from when pondering
+ * started, so the move is usually ready at once. Otherwise the ponder search
+ * is stopped and a new search is started, which still finds the ponder
+ * search's results in the shared transposition table.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class Engine
+{
+	private final Computer computer;
+	private final ExecutorService executor;
+	private final Timer clock;
+
+	// The ponder search (null if not pondering), its abort flag, the key of
+	// the position it searches, when it started and where its progress goes
+	// once the opponent plays the expected reply
+	private CompletableFuture<Integer> ponderSearch;
+	private AtomicBoolean ponderAbort;
+	private long ponderKey;
+	private long ponderStart;
+	private volatile SearchListener ponderListener;
+
+	// The abort flag of the latest search for the Computer's move, created
+	// before the search is queued so that stop() is never lost
+	private AtomicBoolean searchAbort;
+
+	/**
+	 * Constructs a new Engine for the given Computer.
+	 * @param computer the Computer to search with
+	 */
+	public Engine(Computer computer)
+	{
+		this.computer = computer;
+
+		// One daemon thread so that searches run one after the other and do
+		// not keep the program open
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			public Thread newThread(Runnable task)
+			{
+				Thread thread = new Thread(task, "Engine");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		clock = new Timer("Ponder clock", true);
+	}
+
+	/**
+	 * Starts searching for the Computer's best move on the background thread.
+	 * The board is converted to a Position right away, so it must not change
+	 * until the returned future is complete.
+	 * @param board the board of chess points
+	 * @param random true to pick between book moves at random by weight
+	 * @param listener the listener to tell about each completed iteration
+	 *            (null for none)
+	 * @return the future best Move (null if the Computer has no moves)
+	 */
+	public CompletableFuture<Move> bestMove(final ChessPoint[][] board,
+			final boolean random, final SearchListener listener)
+	{
+		final Position position = new Position(board, computer.getColour());
+		if (ponderSearch != null && position.getKey() == ponderKey)
+			return ponderHit(board, listener);
+		stopPondering();
+
+		final AtomicBoolean abort = new AtomicBoolean();
+		searchAbort = abort;
+		return CompletableFuture.supplyAsync(new Supplier<Move>()
+		{
+			public Move get()
+			{
+				computer.setSearchListener(listener);
+				int move = computer.bestMove(position, random, abort);
+				computer.setSearchListener(null);
+				if (move == 0)
+					return null;
+				return computer.toMove(board, move);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Finds a legal move for the Computer without searching, such as when a
+	 * search has failed.
+	 * @param board the board of chess points
+	 * @return the first legal Move generated (null if the Computer has no
+	 *         moves)
+	 */
+	public Move anyMove(ChessPoint[][] board)
+	{
+		Position position = new Position(board, computer.getColour());
+		int[] moves = new int[Position.MAX_MOVES];
+		if (position.generateMoves(moves) == 0)
+			return null;
+		return computer.toMove(board, moves[0]);
+	}
+
+	/**
+	 * Starts searching the position after the opponent's expected reply to
+	 * the Computer's last move (if the last search found one). Must be called
+	 * once the Computer's move has been made on the board, and the board must
+	 * not change until the opponent's move is passed to bestMove.
+	 * @param board the board of chess points
+	 * @param random true to pick between book moves at random by weight
+	 */
+	public void ponder(ChessPoint[][] board, final boolean random)
+	{
+		stopPondering();
+		int move = computer.getPonderMove();
+		if (move == 0)
+			return;
+
+		// Only ponder on a reply that is legal on this board
+		final Position position = new Position(board,
+				1 - computer.getColour());
+		int[] moves = new int[Position.MAX_MOVES];
+		int noOfMoves = position.generateMoves(moves);
+		int index = 0;
+		while (index < noOfMoves && moves[index] != move)
+			index++;
+		if (index == noOfMoves)
+			return;
+		position.makeMove(move);
+
+		final AtomicBoolean abort = new AtomicBoolean();
+		ponderAbort = abort;
+		ponderKey = position.getKey();
+		ponderStart = System.currentTimeMillis();
+		ponderListener = null;
+		ponderSearch = CompletableFuture.supplyAsync(new Supplier<Integer>()
+		{
+			public Integer get()
+			{
+				computer.setSearchListener(new SearchListener()
+				{
+					public void searchProgress(int depth, int bestMove,
+							int score, int[] principalVariation, long nodes)
+					{
+						SearchListener listener = ponderListener;
+						if (listener != null)
+							listener.searchProgress(depth, bestMove, score,
+									principalVariation, nodes);
+					}
+				});
+				int move = computer.ponder(position, random, abort);
+				computer.setSearchListener(null);
+				return move;
+			}
+		}, executor);
+	}
+
+	/**
+	 * Turns the ponder search into the Computer's search after the opponent
+	 * played the expected reply. It is stopped once the time limit has passed
+	 * since pondering started (right away if it already has).
+	 * @param board the board of chess points
+	 * @param listener the listener to tell about each completed iteration
+	 *            (null for none)
+	 * @return the future best Move (null if the Computer has no moves)
+	 */
+	private CompletableFuture<Move> ponderHit(final ChessPoint[][] board,
+			SearchListener listener)
+	{
+		CompletableFuture<Integer> search = ponderSearch;
+		final AtomicBoolean abort = ponderAbort;
+		ponderSearch = null;
+		ponderAbort = null;
+		ponderListener = listener;
+
+		long timeLimit = computer.getTimeLimit();
+		if (timeLimit > 0 && !search.isDone())
+		{
+			long timeLeft = ponderStart + timeLimit - System.currentTimeMillis();
+			if (timeLeft <= 0)
+				abort.set(true);
+			else
+				clock.schedule(new TimerTask()
+				{
+					public void run()
+					{
+						abort.set(true);
+					}
+				}, timeLeft);
+		}
+
+		return search.thenApply(new Function<Integer, Move>()
+		{
+			public Move apply(Integer move)
+			{
+				if (move == 0)
+					return null;
+				return computer.toMove(board, move);
+			}
+		});
+	}
+
+	/**
+	 * Stops and forgets the ponder search (if any), such as when the opponent
+	 * did not play the expected reply or a move was undone.
+	 */
+	public void stopPondering()
+	{
+		if (ponderSearch == null)
+			return;
+		ponderAbort.set(true);
+		ponderSearch.cancel(false);
+		ponderSearch = null;
+		ponderAbort = null;
+	}
+
+	/**
+	 * Stops the search that is running so that it plays the best move found
+	 * so far.
+	 */
+	public void stop()
+	{
+		if (searchAbort != null)
+			searchAbort.set(true);
+		computer.stop();
+	}
+
+	/**
+	 * Stops the search that is running (and the ponder search) and shuts down
+	 * the background thread (used when leaving the game).
+	 */
+	public void shutdown()
+	{
+		stopPondering();
+		stop();
+		executor.shutdown();
+		clock.cancel();
+	}
+}
@@ -6,18 +6,28 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 /**
  * The GamePanel which looks after the entire game. It is responsible for keep
@@ -51,6 +61,17 @@ public class GamePanel extends JPanel implements MouseListener,
 	private static final int FRAMES = 10;
 	private static final int DELAY = 20;
 
+	// Whether the AI searches the expected reply while the human is thinking
+	private static final boolean PONDER = true;
+
+	// The AI's opening book and endgame tablebases (played without them if
+	// they are missing)
+	private static final String BOOK_FILE = "book.bin";
+	private static final String TABLEBASE_DIRECTORY = "tablebases";
+
+	// Time between updates of the thinking indicator in milliseconds
+	private static final int THINKING_DELAY = 300;
+
 	// Variables to keep track of the board, players, border panels, and moves
 	private ChineseChessMain parentFrame;
 	private ChessPoint[][] board;
@@ -65,6 +86,14 @@ public class GamePanel extends JPanel implements MouseListener,
 	private SidePanel leftPanel, rightPanel;
 	private HorizontalPanel topPanel, bottomPanel;
 
+	// The engine that searches for the AI off the Event Dispatch Thread, the
+	// search that is running (null if none) and the thinking indicator
+	private Engine engine;
+	private CompletableFuture<Move> search;
+	private Timer thinkingTimer;
+	private int thinkingDots;
+	private String thinkingProgress;
+
 	// Selected Piece is static since it is shared between the panels
 	public static Piece selectedPiece;
 
@@ -76,7 +105,8 @@ public class GamePanel extends JPanel implements MouseListener,
 	 * Constructs a new GamePanel given the JFrame and AI information.
 	 * @param parentFrame the JFrame to put this JPanel in
 	 * @param computer true if the opponent is a computer, false if not
-	 * @param level the difficulty of the AI (use 0 if 2 players)
+	 * @param level the difficulty level of the AI, Computer.EASY to
+	 *            Computer.EXPERT (use 0 if 2 players)
 	 */
 	public GamePanel(ChineseChessMain parentFrame, boolean computer, int level)
 	{
@@ -100,19 +130,54 @@ public class GamePanel extends JPanel implements MouseListener,
 		addMouseListener(this);
 		addMouseMotionListener(this);
 
-		// Initialize the board and link the pieces to it
+		// Initialize the board
 		board = new ChessPoint[NO_OF_ROWS][NO_OF_COLS];
 		for (int row = 0; row < NO_OF_ROWS; row++)
 			for (int col = 0; col < NO_OF_COLS; col++)
 				board[row][col] = new ChessPoint(row, col);
-		Piece.linkBoard(board);
 
 		// Initialize the players and setup their pieces
 		redPlayer = new Player(Player.RED);
 		if (computer)
-			blackPlayer = new Computer(Player.BLACK, level);
+		{
+			blackPlayer = Computer.atLevel(Player.BLACK, level);
+			File bookFile = new File(BOOK_FILE);
+			if (bookFile.isFile())
+			{
+				try
+				{
+					((Computer) blackPlayer).setOpeningBook(OpeningBook
+							.open(bookFile));
+				}
+				catch (IOException | IllegalArgumentException e)
+				{
+					System.err.println("Could not open the opening book: "
+							+ e.getMessage());
+				}
+			}
+			File tablebaseDirectory = new File(TABLEBASE_DIRECTORY);
+			if (tablebaseDirectory.isDirectory())
+			{
+				try
+				{
+					((Computer) blackPlayer).setTablebase(Tablebase
+							.open(tablebaseDirectory));
+				}
+				catch (IOException | IllegalArgumentException e)
+				{
+					System.err.println("Could not open the tablebases: "
+							+ e.getMessage());
+				}
+			}
+			engine = new Engine((Computer) blackPlayer);
+		}
 		else
 			blackPlayer = new Player(Player.BLACK);
+
+		// Link the pieces to this game's board and place them
+		ChessPoint[] posOfGeneral = new ChessPoint[2];
+		redPlayer.linkBoard(board, posOfGeneral);
+		blackPlayer.linkBoard(board, posOfGeneral);
 		redPlayer.resetPieces(board);
 		blackPlayer.resetPieces(board);
 
@@ -127,6 +192,16 @@ public class GamePanel extends JPanel implements MouseListener,
 		parentFrame.add(topPanel, BorderLayout.NORTH);
 		parentFrame.add(bottomPanel, BorderLayout.SOUTH);
 
+		// Animate the thinking indicator while the AI searches
+		thinkingTimer = new Timer(THINKING_DELAY, new ActionListener()
+		{
+			public void actionPerformed(ActionEvent event)
+			{
+				thinkingDots = (thinkingDots + 1) % 4;
+				showThinking();
+			}
+		});
+
 		// Remaining variables
 		moves = new LinkedList<Move>();
 		selectedPiece = null;
@@ -161,12 +236,13 @@ public class GamePanel extends JPanel implements MouseListener,
 	}
 
 	/**
-	 * Determines if an undo operation can be made.
+	 * Determines if an undo operation can be made (not while the AI is
+	 * thinking).
 	 * @return true if an undo can be done or false if not
 	 */
 	public boolean canUndo()
 	{
-		return !moves.isEmpty();
+		return !moves.isEmpty() && search == null;
 	}
 
 	/**
@@ -178,6 +254,10 @@ public class GamePanel extends JPanel implements MouseListener,
 		// Undo if there are moves in the list
 		if (canUndo())
 		{
+			// The expected reply no longer follows the board
+			if (engine != null)
+				engine.stopPondering();
+
 			Move lastMove = moves.removeLast();
 			lastMove.undo();
 
@@ -195,12 +275,16 @@ public class GamePanel extends JPanel implements MouseListener,
 	}
 
 	/**
-	 * Checks if there is a winner (called before changing turns).
+	 * Checks if there is a winner (called before changing turns). Each check
+	 * is recorded for Java Flight Recorder as a WinCheckEvent.
 	 * @author Derrick Thai and Riddle Li
 	 * @return true if there is a winner or false if not
 	 */
 	public boolean checkForWinner()
 	{
+		WinCheckEvent event = new WinCheckEvent();
+		event.begin();
+
 		// Get the other player
 		Player other;
 		if (currentPlayer.getColour() == Player.BLACK)
@@ -211,10 +295,27 @@ public class GamePanel extends JPanel implements MouseListener,
 		// * In Chinese Chess, when a player has no more moves, it is not a
 		// stalemate, that player loses
 		ArrayList<Piece> allPieces = other.getAlivePieces();
+		boolean winner = true;
+		int piecesChecked = 0;
 		for (Piece eachPiece : allPieces)
+		{
+			piecesChecked++;
 			if (eachPiece.generateMoves(true).size() > 0)
-				return false;
-		return true;
+			{
+				winner = false;
+				break;
+			}
+		}
+
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.player = Piece.COLOUR_NAMES[other.getColour()];
+			event.piecesChecked = piecesChecked;
+			event.winnerFound = winner;
+			event.commit();
+		}
+		return winner;
 	}
 
 	/**
@@ -235,35 +336,75 @@ public class GamePanel extends JPanel implements MouseListener,
 	}
 
 	/**
-	 * Animates a move from its from point to to point given the Move.
+	 * Animates a move from its from point to to point given the Move. The
+	 * frames are drawn by a Swing Timer so that the Event Dispatch Thread is
+	 * never put to sleep. Each frame is recorded for Java Flight Recorder as
+	 * an AnimationFrameEvent.
 	 * @param move the Move to be animated
+	 * @param whenDone what to do once the animation is finished
 	 */
-	public void animateMove(Move move)
+	public void animateMove(Move move, final Runnable whenDone)
 	{
 		// Get the piece and the points to move from and to
-		Point toPos = new Point(move.getToPoint().x, move.getToPoint().y);
-		Point fromPos = new Point(move.getFromPoint().x, move.getFromPoint().y);
-		Piece pieceToMove = move.getMoved();
+		final Point toPos = new Point(move.getToPoint().x, move.getToPoint().y);
+		final Point fromPos = new Point(move.getFromPoint().x,
+				move.getFromPoint().y);
+		final Piece pieceToMove = move.getMoved();
 
 		// Calculate the change in x and y
-		int dx = (toPos.x - fromPos.x) / FRAMES;
-		int dy = (toPos.y - fromPos.y) / FRAMES;
+		final int dx = (toPos.x - fromPos.x) / FRAMES;
+		final int dy = (toPos.y - fromPos.y) / FRAMES;
 
 		movingPiece = pieceToMove;
-		for (int times = 1; times <= FRAMES; times++)
+		final Timer timer = new Timer(DELAY, null);
+		timer.addActionListener(new ActionListener()
 		{
-			// Move the piece
-			fromPos.x += dx;
-			fromPos.y += dy;
-			pieceToMove.setPosition(fromPos);
-
-			// Update the drawing area immediately
-			paintImmediately(0, 0, getWidth(), getHeight());
-			delay(DELAY);
-		}
-		// Lock the piece to the correct point
-		pieceToMove.setPosition(toPos);
-		movingPiece = null;
+			private int times;
+			private long lastFrame = System.nanoTime();
+
+			public void actionPerformed(ActionEvent event)
+			{
+				// Stop if the game was left part way through
+				if (!inGame)
+				{
+					timer.stop();
+					return;
+				}
+
+				if (++times <= FRAMES)
+				{
+					AnimationFrameEvent frame = new AnimationFrameEvent();
+					frame.begin();
+					long now = System.nanoTime();
+
+					// Move the piece and update the drawing area immediately
+					fromPos.x += dx;
+					fromPos.y += dy;
+					pieceToMove.setPosition(fromPos);
+					paintImmediately(0, 0, getWidth(), getHeight());
+
+					frame.end();
+					if (frame.shouldCommit())
+					{
+						frame.piece = pieceToMove.getClass().getSimpleName();
+						frame.frame = times;
+						frame.frames = FRAMES;
+						frame.lateness = Math.max(0, now - lastFrame - DELAY
+								* 1000000L);
+						frame.commit();
+					}
+					lastFrame = now;
+					return;
+				}
+
+				// Lock the piece to the correct point
+				timer.stop();
+				pieceToMove.setPosition(toPos);
+				movingPiece = null;
+				whenDone.run();
+			}
+		});
+		timer.start();
 	}
 
 	/**
@@ -354,62 +495,172 @@ public class GamePanel extends JPanel implements MouseListener,
 	}
 
 	/**
-	 * Makes the AI make its move.
+	 * Makes the AI start thinking about its move. The search runs on the
+	 * engine's thread while the Event Dispatch Thread keeps the board
+	 * responsive and shows the progress of the search.
 	 */
 	private void computerMove()
 	{
-		// Get the best move and execute it
-		Move move = ((Computer) blackPlayer).bestMove(board, redPlayer, true);
+		parentFrame.setUndoOption(false);
+		parentFrame.setMoveNowOption(true);
+		thinkingDots = 0;
+		thinkingProgress = null;
+		showThinking();
+		thinkingTimer.start();
 
-		// Also animate the move and add it to the moves list
-		if (move != null)
+		search = engine.bestMove(board, true, new SearchListener()
 		{
-			animateMove(move);
-			move.execute();
-			moves.addLast(move);
+			public void searchProgress(final int depth, final int bestMove,
+					int score, int[] principalVariation, long nodes)
+			{
+				SwingUtilities.invokeLater(new Runnable()
+				{
+					public void run()
+					{
+						if (search != null)
+						{
+							thinkingProgress = "Depth " + depth + ": "
+									+ Position.toIccs(bestMove);
+							showThinking();
+						}
+					}
+				});
+			}
+		});
+		search.whenComplete(new BiConsumer<Move, Throwable>()
+		{
+			public void accept(final Move move, final Throwable error)
+			{
+				SwingUtilities.invokeLater(new Runnable()
+				{
+					public void run()
+					{
+						finishComputerMove(move, error);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Plays the AI's move once its search is finished.
+	 * @param move the move found (null if the AI has no moves)
+	 * @param error the reason the search did not finish (null if it did)
+	 */
+	private void finishComputerMove(Move move, Throwable error)
+	{
+		// Ignore a search that was cancelled because the game was left
+		if (error instanceof CompletionException && error.getCause() != null)
+			error = error.getCause();
+		if (error instanceof CancellationException)
+			return;
+
+		search = null;
+		thinkingTimer.stop();
+		rightPanel.setThinking();
+		parentFrame.setMoveNowOption(false);
+
+		// Report a search that failed and play any legal move instead so
+		// that the game can go on
+		if (error != null)
+		{
+			JOptionPane.showMessageDialog(parentFrame, "The AI's search "
+					+ "failed (" + error + "), so it plays the first legal "
+					+ "move it finds.", "Search Error",
+					JOptionPane.ERROR_MESSAGE);
+			move = engine.anyMove(board);
 		}
-		else
+
+		// AI Loses when it does not have a move
+		if (move == null)
 		{
-			// AI Loses when it does not have a move
 			changeTurn();
+			repaint();
 			win();
+			return;
 		}
-		repaint();
-		delay(100);
 
-		// Check for AI winning and then change turns
-		if (checkForWinner())
-			win();
+		// Animate the move and then execute it and add it to the moves list
+		final Move computerMove = move;
+		animateMove(computerMove, new Runnable()
+		{
+			public void run()
+			{
+				computerMove.execute();
+				moves.addLast(computerMove);
+				parentFrame.setUndoOption(true);
+				repaint();
+
+				// Check for AI winning and then change turns and search the
+				// expected reply while the human thinks
+				if (checkForWinner())
+					win();
+				else
+				{
+					changeTurn();
+					if (PONDER)
+						engine.ponder(board, true);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Shows the thinking indicator with the progress of the search so far.
+	 */
+	private void showThinking()
+	{
+		String thinking = "Thinking" + "...".substring(0, thinkingDots);
+		if (thinkingProgress == null)
+			rightPanel.setThinking(thinking);
 		else
-			changeTurn();
+			rightPanel.setThinking(thinking, thinkingProgress);
+		rightPanel.repaint();
 	}
 
 	/**
-	 * Delays the program for the given time in milliseconds.
-	 * @param milliSec the time to delay in milliseconds
+	 * Makes the AI stop thinking and play the best move it has found so far.
 	 */
-	public void delay(int milliSec)
+	public void moveNow()
 	{
-		try
-		{
-			Thread.sleep(milliSec);
-		}
-		catch (Exception e)
+		if (search != null)
+			engine.stop();
+	}
+
+	/**
+	 * Stops the game and cancels the AI's search (used when leaving the game
+	 * panel).
+	 */
+	public void stopGame()
+	{
+		inGame = false;
+		thinkingTimer.stop();
+		if (engine != null)
 		{
+			if (search != null)
+				search.cancel(false);
+			search = null;
+			engine.shutdown();
+			parentFrame.setMoveNowOption(false);
 		}
 	}
 
 	/**
-	 * Global repaint which immediately repaints all of the panels.
+	 * Global repaint which immediately repaints all of the panels. Each
+	 * repaint is recorded for Java Flight Recorder as a RepaintEvent.
 	 * @overrides the repaint() method in the JPanel class
 	 */
 	public void repaint()
 	{
+		RepaintEvent event = new RepaintEvent();
+		event.begin();
 		this.paintImmediately(0, 0, WIDTH, HEIGHT);
 
+		int panels = 1;
 		if (leftPanel != null && rightPanel != null && topPanel != null
 				&& bottomPanel != null)
 		{
+			panels += 4;
 			leftPanel.paintImmediately(0, 0, SidePanel.WIDTH, SidePanel.HEIGHT);
 			rightPanel
 					.paintImmediately(0, 0, SidePanel.WIDTH, SidePanel.HEIGHT);
@@ -419,6 +670,13 @@ public class GamePanel extends JPanel implements MouseListener,
 			bottomPanel.paintImmediately(0, 0, HorizontalPanel.WIDTH,
 					HorizontalPanel.HEIGHT);
 		}
+
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.panels = panels;
+			event.commit();
+		}
 	}
 
 	/**
@@ -457,8 +715,22 @@ public class GamePanel extends JPanel implements MouseListener,
 				sourcePoint = point;
 				lastPoint = clickedPoint;
 
-				// Highlight its valid moves
+				// Find and highlight its valid moves
+				MoveValidationEvent validation = new MoveValidationEvent();
+				validation.begin();
 				validMoves = selectedPiece.generateMoves(true);
+				validation.end();
+				if (validation.shouldCommit())
+				{
+					validation.piece = selectedPiece.getClass()
+							.getSimpleName();
+					validation.colour = Piece.COLOUR_NAMES[currentPlayer
+							.getColour()];
+					validation.row = point.getRow();
+					validation.column = point.getColumn();
+					validation.legalMoves = validMoves.size();
+					validation.commit();
+				}
 				for (ChessPoint validPoint : validMoves)
 					validPoint.setHighlighted(true);
 
@@ -493,8 +765,8 @@ public class GamePanel extends JPanel implements MouseListener,
 					parentFrame.setUndoOption(true);
 
 					// Update the piece values of pieces that have decay/growth
-					Cannon.updatePieceValue(moves.size());
-					Horse.updatePieceValue(moves.size());
+					redPlayer.updatePieceValues(moves.size());
+					blackPlayer.updatePieceValues(moves.size());
 
 					// Unhighlight valid points after move is done
 					selectedPiece = null;
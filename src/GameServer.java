@@ -0,0 +1,378 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hosts many games against the Computer at once. A game is a Session that
+ * holds only its Position, so it costs no thread and very little memory, and
+ * thousands of them can be open together. Moves are played asynchronously:
+ * each of the Computer's replies is a CompletableFuture. The searches of
+ * every game run on one pool with a thread per processor, in the order they
+ * were asked for, and each search has the same time and node limit. Since a
+ * game can only wait for one reply at a time, a busy game cannot push the
+ * other games back, and the wait for a reply stays fair under load. Each
+ * pool thread keeps its own Computer and transposition table, shared by the
+ * games it searches (a key stands for the same position in every game). Run
+ * a load test with: java GameServer [games] [moves per game] [threads]
+ * [milliseconds per move]
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class GameServer
+{
+	// Defaults of the load test
+	public static final int DEFAULT_GAMES = 2000;
+	public static final int DEFAULT_MOVES = 20;
+	public static final long DEFAULT_TIME_LIMIT = 20;
+
+	// The games by id, the next id and the number of searches waiting for or
+	// running on the pool
+	private final Map<Long, Session> sessions;
+	private final AtomicLong nextId;
+	private final AtomicInteger pendingSearches;
+
+	// The search pool, its Computer on each thread and their limits
+	private final ExecutorService searchPool;
+	private final ThreadLocal<Computer> computers;
+
+	/**
+	 * Constructs a new GameServer.
+	 * @param searchThreads the number of searches that can run at once
+	 *            (usually the number of processors)
+	 * @param depth the maximum depth of each search
+	 * @param timeLimit the time limit of each search in milliseconds (0 for
+	 *            no time limit)
+	 * @param nodeLimit the node limit of each search (0 for no node limit)
+	 */
+	public GameServer(int searchThreads, final int depth,
+			final long timeLimit, final long nodeLimit)
+	{
+		sessions = new ConcurrentHashMap<Long, Session>();
+		nextId = new AtomicLong();
+		pendingSearches = new AtomicInteger();
+
+		// Daemon threads so that the pool does not keep the program open
+		final AtomicInteger threadNo = new AtomicInteger();
+		searchPool = Executors.newFixedThreadPool(searchThreads,
+				new ThreadFactory()
+				{
+					public Thread newThread(Runnable task)
+					{
+						Thread thread = new Thread(task, "Search worker "
+								+ threadNo.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		computers = new ThreadLocal<Computer>()
+		{
+			protected Computer initialValue()
+			{
+				Computer computer = new Computer(Piece.RED, depth, timeLimit);
+				computer.setNodeLimit(nodeLimit);
+				return computer;
+			}
+		};
+	}
+
+	/**
+	 * Runs a load test: plays the given number of games at once, with random
+	 * legal moves against the Computer, and reports how long the replies
+	 * took.
+	 * @param args the number of games, moves per game, search threads and
+	 *            milliseconds per move
+	 */
+	public static void main(String[] args)
+	{
+		int games = args.length > 0 ? Integer.parseInt(args[0])
+				: DEFAULT_GAMES;
+		int moves = args.length > 1 ? Integer.parseInt(args[1])
+				: DEFAULT_MOVES;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime
+				.getRuntime().availableProcessors();
+		long timeLimit = args.length > 3 ? Long.parseLong(args[3])
+				: DEFAULT_TIME_LIMIT;
+
+		GameServer server = new GameServer(threads, Searcher.MAX_PLY - 1,
+				timeLimit, 0);
+		final long[] latencies = new long[games * moves];
+		final AtomicInteger replies = new AtomicInteger();
+		CompletableFuture<?>[] clients = new CompletableFuture<?>[games];
+		long start = System.nanoTime();
+		for (int game = 0; game < games; game++)
+			clients[game] = server.playRandomGame(server.newGame(
+					Position.START_FEN), moves, new Random(game), latencies,
+					replies);
+		CompletableFuture.allOf(clients).join();
+		long time = System.nanoTime() - start;
+		server.shutdown();
+
+		long[] sorted = Arrays.copyOf(latencies, replies.get());
+		Arrays.sort(sorted);
+		System.out.printf("Games: %d%nThreads: %d%nReplies: %d%n"
+				+ "Replies/sec: %.1f%n", games, threads, sorted.length,
+				sorted.length * 1e9 / time);
+		if (sorted.length > 0)
+			System.out.printf("Latency ms: p50 %.1f  p99 %.1f  max %.1f%n",
+					sorted[sorted.length / 2] / 1e6,
+					sorted[sorted.length * 99 / 100] / 1e6,
+					sorted[sorted.length - 1] / 1e6);
+	}
+
+	/**
+	 * Plays random legal moves in a game until it is over or the given
+	 * number of moves is reached, recording how long each reply took.
+	 * @param session the game
+	 * @param moves the number of moves to play
+	 * @param random the source of the moves
+	 * @param latencies where to record the time of each reply in nanoseconds
+	 * @param replies the number of replies recorded so far (shared between
+	 *            games)
+	 * @return the future that completes when the game is done
+	 */
+	private CompletableFuture<Void> playRandomGame(final Session session,
+			final int moves, final Random random, final long[] latencies,
+			final AtomicInteger replies)
+	{
+		List<String> legalMoves = session.getLegalMoves();
+		if (moves == 0 || legalMoves.isEmpty())
+		{
+			endGame(session.getId());
+			return CompletableFuture.completedFuture(null);
+		}
+
+		final long start = System.nanoTime();
+		return session.play(legalMoves.get(random.nextInt(legalMoves.size())))
+				.thenCompose(new Function<String, CompletableFuture<Void>>()
+				{
+					public CompletableFuture<Void> apply(String reply)
+					{
+						latencies[replies.getAndIncrement()] = System
+								.nanoTime() - start;
+						if (reply.isEmpty())
+						{
+							endGame(session.getId());
+							return CompletableFuture.completedFuture(null);
+						}
+						return playRandomGame(session, moves - 1, random,
+								latencies, replies);
+					}
+				});
+	}
+
+	/**
+	 * Opens a new game.
+	 * @param fen the FEN of the starting position
+	 * @return the new game
+	 */
+	public Session newGame(String fen)
+	{
+		Session session = new Session(nextId.incrementAndGet(), new Position(
+				fen));
+		sessions.put(session.getId(), session);
+		return session;
+	}
+
+	/**
+	 * Gets an open game.
+	 * @param id the id of the game
+	 * @return the game or null if there is no open game with the id
+	 */
+	public Session getSession(long id)
+	{
+		return sessions.get(id);
+	}
+
+	/**
+	 * Closes a game. A reply that is being searched for still completes.
+	 * @param id the id of the game
+	 */
+	public void endGame(long id)
+	{
+		sessions.remove(id);
+	}
+
+	/**
+	 * Gets the number of open games.
+	 * @return the number of games
+	 */
+	public int getActiveGames()
+	{
+		return sessions.size();
+	}
+
+	/**
+	 * Gets the number of searches that are waiting for or running on the
+	 * search pool.
+	 * @return the number of searches
+	 */
+	public int getPendingSearches()
+	{
+		return pendingSearches.get();
+	}
+
+	/**
+	 * Stops the search pool. Searches that are waiting are not run.
+	 */
+	public void shutdown()
+	{
+		searchPool.shutdownNow();
+		sessions.clear();
+	}
+
+	/**
+	 * Keeps track of one game against the Computer.
+	 */
+	public class Session
+	{
+		private final long id;
+		private Position position;
+
+		// The reply being searched for (null or done if none)
+		private CompletableFuture<String> reply;
+
+		/**
+		 * Constructs a new Session.
+		 * @param id the id of the game
+		 * @param position the starting position
+		 */
+		private Session(long id, Position position)
+		{
+			this.id = id;
+			this.position = position;
+		}
+
+		/**
+		 * Gets the id of this game.
+		 * @return the id
+		 */
+		public long getId()
+		{
+			return id;
+		}
+
+		/**
+		 * Gets the current position of this game.
+		 * @return the FEN of the position
+		 */
+		public synchronized String getFen()
+		{
+			return position.toFen();
+		}
+
+		/**
+		 * Gets the legal moves of the side to move.
+		 * @return the ICCS moves
+		 */
+		public synchronized List<String> getLegalMoves()
+		{
+			int[] moves = new int[Position.MAX_MOVES];
+			int noOfMoves = position.generateMoves(moves);
+			String[] iccsMoves = new String[noOfMoves];
+			for (int move = 0; move < noOfMoves; move++)
+				iccsMoves[move] = Position.toIccs(moves[move]);
+			return Arrays.asList(iccsMoves);
+		}
+
+		/**
+		 * Plays a move for the player and starts searching for the
+		 * Computer's reply.
+		 * @param iccs the player's move, such as "h2e2"
+		 * @return the future ICCS reply (an empty string if the Computer has
+		 *         no moves)
+		 * @throws IllegalArgumentException if the move is not legal
+		 * @throws IllegalStateException if the Computer is still searching
+		 *             for its last reply
+		 */
+		public synchronized CompletableFuture<String> play(String iccs)
+		{
+			checkNotSearching();
+			int move = position.findMove(iccs);
+			if (move == 0)
+				throw new IllegalArgumentException("Illegal move: " + iccs);
+			makeMove(move);
+			return searchReply();
+		}
+
+		/**
+		 * Starts searching for the Computer's move in the current position,
+		 * such as when the Computer plays first.
+		 * @return the future ICCS move (an empty string if the Computer has
+		 *         no moves)
+		 * @throws IllegalStateException if the Computer is already searching
+		 */
+		public synchronized CompletableFuture<String> computerMove()
+		{
+			checkNotSearching();
+			return searchReply();
+		}
+
+		/**
+		 * Makes a move and starts again from a copy of the new position, so
+		 * that however long the game is, it never uses up the position's
+		 * move history.
+		 * @param move the packed move
+		 */
+		private void makeMove(int move)
+		{
+			position.makeMove(move);
+			position = new Position(position.toFen());
+		}
+
+		/**
+		 * Makes sure that no reply is being searched for.
+		 * @throws IllegalStateException if a reply is being searched for
+		 */
+		private void checkNotSearching()
+		{
+			if (reply != null && !reply.isDone())
+				throw new IllegalStateException(
+						"The Computer is still thinking");
+		}
+
+		/**
+		 * Queues the search for the Computer's move on the search pool and
+		 * plays the move once it is found.
+		 * @return the future ICCS move
+		 */
+		private CompletableFuture<String> searchReply()
+		{
+			// Search a copy so that the game can be read during the search
+			final Position root = new Position(position);
+			pendingSearches.incrementAndGet();
+			reply = CompletableFuture.supplyAsync(new Supplier<String>()
+			{
+				public String get()
+				{
+					try
+					{
+						int move = computers.get().bestMove(root, false);
+						if (move == 0)
+							return "";
+						synchronized (Session.this)
+						{
+							makeMove(move);
+						}
+						return Position.toIccs(move);
+					}
+					finally
+					{
+						pendingSearches.decrementAndGet();
+					}
+				}
+			}, searchPool);
+			return reply;
+		}
+	}
+}
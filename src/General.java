@@ -58,34 +58,110 @@ public class General extends Piece
 	}
 
 	/**
-	 * Check if this Piece is under check
+	 * Check if this Piece is under check. Instead of generating the moves of
+	 * every enemy piece, looks outward from the general's point for the
+	 * pieces that could attack it: chariots, cannons and the other general
+	 * along the rows and columns, horses whose legs are not blocked and
+	 * soldiers next to it.
 	 * @param generalPoint This position of the general
 	 * @return true if this piece is under check, false if not
 	 */
 	public boolean checkForCheck(ChessPoint generalPoint)
 	{
-		// Search the entire board for enemy Pieces
-		for (int row = 0; row < GamePanel.NO_OF_ROWS; row++)
-			for (int col = 0; col < GamePanel.NO_OF_COLS; col++)
-				if (board[row][col].hasPiece()
-						&& !board[row][col].getPiece().sameColour(this))
-					// We don't check elephants and advisors because they can
-					// never check
-					if (!(board[row][col].getPiece() instanceof Elephant)
-							&& !(board[row][col].getPiece() instanceof Advisor))
-					{
-						// If that piece's possible moves includes the point
-						// that this general is on, return true.
-						HashSet<ChessPoint> moves = board[row][col].getPiece()
-								.generateMoves(false);
-
-						if (moves.contains(generalPoint))
-							return true;
-					}
+		int generalRow = generalPoint.getRow();
+		int generalCol = generalPoint.getColumn();
+
+		// Look along the 4 directions for chariots, cannons and the facing
+		// general
+		for (int move = 0; move < 4; move++)
+		{
+			int row = generalRow + DROW[move];
+			int col = generalCol + DCOL[move];
+			while (row >= 0 && row <= 9 && col >= 0 && col <= 8
+					&& !board[row][col].hasPiece())
+			{
+				row += DROW[move];
+				col += DCOL[move];
+			}
+			if (row < 0 || row > 9 || col < 0 || col > 8)
+				continue;
+
+			// The first piece reached checks if it is a chariot or the
+			// other general (along the column)
+			Piece piece = board[row][col].getPiece();
+			if (!piece.sameColour(this)
+					&& (piece instanceof Chariot || (piece instanceof General
+							&& DCOL[move] == 0)))
+				return true;
+
+			// The second piece reached checks if it is a cannon
+			row += DROW[move];
+			col += DCOL[move];
+			while (row >= 0 && row <= 9 && col >= 0 && col <= 8
+					&& !board[row][col].hasPiece())
+			{
+				row += DROW[move];
+				col += DCOL[move];
+			}
+			if (row >= 0 && row <= 9 && col >= 0 && col <= 8)
+			{
+				piece = board[row][col].getPiece();
+				if (!piece.sameColour(this) && piece instanceof Cannon)
+					return true;
+			}
+		}
+
+		// Look for horses that can jump onto the general with their legs
+		// unblocked
+		for (int move = 0; move < 8; move++)
+		{
+			int row = generalRow - Horse.DROW[move];
+			int col = generalCol - Horse.DCOL[move];
+			if (row >= 0 && row <= 9 && col >= 0 && col <= 8)
+			{
+				Piece piece = board[row][col].getPiece();
+				if (piece instanceof Horse
+						&& !piece.sameColour(this)
+						&& !board[row + Horse.DROW_BLOCK[move]][col
+								+ Horse.DCOL_BLOCK[move]].hasPiece())
+					return true;
+			}
+		}
+
+		// Look for soldiers in front of the general and (once they crossed the
+		// river) beside it
+		int forward = generalRow - 1;
+		if (this.colour == Piece.BLACK)
+			forward = generalRow + 1;
+		if (forward >= 0 && forward <= 9
+				&& isEnemySoldier(board[forward][generalCol].getPiece()))
+			return true;
+		for (int sideWays = -1; sideWays <= 1; sideWays += 2)
+		{
+			int col = generalCol + sideWays;
+			if (col >= 0 && col <= 8)
+			{
+				Piece piece = board[generalRow][col].getPiece();
+				if (isEnemySoldier(piece)
+						&& ((piece.colour == Piece.BLACK && generalRow >= 5)
+						|| (piece.colour == Piece.RED && generalRow <= 4)))
+					return true;
+			}
+		}
 
 		return false;
 	}
 
+	/**
+	 * Determines if the given piece is a soldier of the other colour.
+	 * @param piece the piece to check (can be null)
+	 * @return true if the piece is an enemy soldier, false if not
+	 */
+	private boolean isEnemySoldier(Piece piece)
+	{
+		return piece instanceof Soldier && !piece.sameColour(this);
+	}
+
 	/**
 	 * Generates a list of chess points which this piece can move to
 	 * @param removeExtra whether if we want to remove all the illegal moves
@@ -155,20 +231,20 @@ public class General extends Piece
 			eachMove.addPiece(this);
 
 			if (this.colour == Piece.BLACK)
-				Piece.posOfGeneral[Piece.BLACK] = eachMove;
+				posOfGeneral[Piece.BLACK] = eachMove;
 			else
-				Piece.posOfGeneral[Piece.RED] = eachMove;
+				posOfGeneral[Piece.RED] = eachMove;
 
 			// If the general on the same side as this piece isn't in check,
 			// then its a legit move.
 			if (this.colour == Piece.RED)
 			{
-				if (!(((General) Piece.posOfGeneral[Piece.RED].getPiece())
-						.checkForCheck(Piece.posOfGeneral[Piece.RED])))
+				if (!(((General) posOfGeneral[Piece.RED].getPiece())
+						.checkForCheck(posOfGeneral[Piece.RED])))
 					allLegitMoves.add(eachMove);
 			}
-			else if (!(((General) Piece.posOfGeneral[Piece.BLACK].getPiece())
-					.checkForCheck(Piece.posOfGeneral[Piece.BLACK])))
+			else if (!(((General) posOfGeneral[Piece.BLACK].getPiece())
+					.checkForCheck(posOfGeneral[Piece.BLACK])))
 				allLegitMoves.add(eachMove);
 
 			// return the board back to how it was before each move was tried
@@ -176,9 +252,9 @@ public class General extends Piece
 			this.point.addPiece(this);
 
 			if (this.colour == Piece.BLACK)
-				Piece.posOfGeneral[Piece.BLACK] = this.point;
+				posOfGeneral[Piece.BLACK] = this.point;
 			else
-				Piece.posOfGeneral[Piece.RED] = this.point;
+				posOfGeneral[Piece.RED] = this.point;
 
 		}
 		return allLegitMoves;
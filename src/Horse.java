@@ -23,7 +23,7 @@ public class Horse extends Piece
 	// Variables to store this piece's piece value and positional values.
 	// These can be used to calculate this piece's numerical worth in a chess
 	// game.
-	public static int pieceValue = 280;
+	public static final int BASE_VALUE = 280;
 
 	final static int[][] BOARD_VALUE = { { 4, 8, 16, 12, 4, 12, 16, 8, 4 },
 			{ 4, 10, 28, 16, 8, 16, 28, 10, 4 },
@@ -48,7 +48,7 @@ public class Horse extends Piece
 		// initializes this Piece's colour, piece value, and maximum number of
 		// moves (calculated by head)
 		this.colour = colour;
-		super.pieceValue = Horse.pieceValue;
+		super.pieceValue = Horse.BASE_VALUE;
 		this.maxMoves = 8;
 	}
 
@@ -61,9 +61,13 @@ public class Horse extends Piece
 		return BOARD_VALUE;
 	}
 
-	public static void updatePieceValue(int noOfMoves)
+	/**
+	 * Updates this piece's value, which grows as the game goes on.
+	 * @param noOfMoves the number of moves made in this piece's game
+	 */
+	public void updatePieceValue(int noOfMoves)
 	{
-		pieceValue = 280 + noOfMoves / 3;
+		super.pieceValue = Horse.BASE_VALUE + noOfMoves / 3;
 	}
 
 	/**
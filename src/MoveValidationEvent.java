@@ -0,0 +1,34 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for finding the legal moves of a piece that a
+ * player picks up, which tries each move to see if it leaves the general in
+ * check.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+@Name("ChineseChess.MoveValidation")
+@Label("Move Validation")
+@Category({ "Chinese Chess", "Game" })
+@Description("Finding the legal moves of a picked up piece")
+public class MoveValidationEvent extends jdk.jfr.Event
+{
+	@Label("Piece")
+	public String piece;
+
+	@Label("Colour")
+	public String colour;
+
+	@Label("Row")
+	public int row;
+
+	@Label("Column")
+	public int column;
+
+	@Label("Legal Moves")
+	public int legalMoves;
+}
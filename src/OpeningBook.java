@@ -0,0 +1,183 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Keeps track of an opening book stored in a binary file. The file is mapped
+ * into memory instead of being read, so opening it takes no time and every
+ * game (and every process) shares the same pages. The file starts with a
+ * header (magic number, version and number of entries) followed by the
+ * entries sorted by key. Each entry is the Zobrist key of a position, a move
+ * (from square times 256 plus to square) and its weight, and a position has
+ * one entry per book move. Books are made by OpeningBookBuilder.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class OpeningBook
+{
+	// File layout: the header and entry sizes in bytes, the magic number
+	// ("XQBK") and the version
+	public static final int HEADER_SIZE = 16;
+	public static final int ENTRY_SIZE = 16;
+	public static final int MAGIC = 0x5851424B;
+	public static final int VERSION = 1;
+
+	// The mapped file and the number of entries in it
+	private final ByteBuffer entries;
+	private final int size;
+
+	// Reusable move list to check that book moves are legal
+	private final int[] moves;
+
+	/**
+	 * Constructs a new OpeningBook on a mapped book file.
+	 * @param entries the mapped file
+	 */
+	private OpeningBook(ByteBuffer entries)
+	{
+		this.entries = entries;
+		if (entries.capacity() < HEADER_SIZE || entries.getInt(0) != MAGIC
+				|| entries.getInt(4) != VERSION)
+			throw new IllegalArgumentException("Not an opening book");
+		size = entries.getInt(8);
+		if (size < 0
+				|| HEADER_SIZE + (long) size * ENTRY_SIZE > entries.capacity())
+			throw new IllegalArgumentException("Opening book is truncated");
+		moves = new int[Position.MAX_MOVES];
+	}
+
+	/**
+	 * Opens the given book file by mapping it into memory.
+	 * @param file the book file
+	 * @return the OpeningBook
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static OpeningBook open(File file) throws IOException
+	{
+		RandomAccessFile book = new RandomAccessFile(file, "r");
+		try
+		{
+			// The mapping stays valid after the channel is closed
+			FileChannel channel = book.getChannel();
+			return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY,
+					0, channel.size()));
+		}
+		finally
+		{
+			book.close();
+		}
+	}
+
+	/**
+	 * Gets the number of entries in the book.
+	 * @return the number of entries
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Finds a book move for the given position. Moves that are not legal in
+	 * the position (from a key collision) are skipped.
+	 * @param position the position
+	 * @param random true to pick a move at random by weight instead of the
+	 *            move with the highest weight
+	 * @return the packed move or 0 if the position is not in the book
+	 */
+	public synchronized int probe(Position position, boolean random)
+	{
+		long key = position.getKey();
+		int first = findFirst(key);
+		int noOfMoves = position.generateMoves(moves);
+
+		// Keep the legal book moves at the front of the move list along with
+		// their weights
+		int[] weights = new int[noOfMoves];
+		int noOfBookMoves = 0;
+		long totalWeight = 0;
+		for (int index = first; index < size && keyAt(index) == key; index++)
+		{
+			int bookMove = moveAt(index);
+			for (int move = noOfBookMoves; move < noOfMoves; move++)
+				if (Position.from(moves[move]) == bookMove >> 8
+						&& Position.to(moves[move]) == (bookMove & 0xFF))
+				{
+					int legalMove = moves[move];
+					moves[move] = moves[noOfBookMoves];
+					moves[noOfBookMoves] = legalMove;
+					weights[noOfBookMoves++] = weightAt(index);
+					totalWeight += weightAt(index);
+					break;
+				}
+		}
+		if (noOfBookMoves == 0 || totalWeight == 0)
+			return 0;
+
+		// The entries of a position are sorted by weight (highest first)
+		if (!random)
+			return moves[0];
+		long pick = (long) (Math.random() * totalWeight);
+		for (int move = 0; move < noOfBookMoves; move++)
+		{
+			pick -= weights[move];
+			if (pick < 0)
+				return moves[move];
+		}
+		return moves[0];
+	}
+
+	/**
+	 * Binary searches for the first entry with the given key.
+	 * @param key the Zobrist key of the position
+	 * @return the index of the first entry with the key (or of the first
+	 *         entry with a larger key if there are none)
+	 */
+	private int findFirst(long key)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (keyAt(middle) < key)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Gets the key of the given entry.
+	 * @param index the index of the entry
+	 * @return the Zobrist key
+	 */
+	private long keyAt(int index)
+	{
+		return entries.getLong(HEADER_SIZE + index * ENTRY_SIZE);
+	}
+
+	/**
+	 * Gets the move of the given entry.
+	 * @param index the index of the entry
+	 * @return the from square times 256 plus the to square
+	 */
+	private int moveAt(int index)
+	{
+		return entries.getInt(HEADER_SIZE + index * ENTRY_SIZE + 8);
+	}
+
+	/**
+	 * Gets the weight of the given entry.
+	 * @param index the index of the entry
+	 * @return the weight
+	 */
+	private int weightAt(int index)
+	{
+		return entries.getInt(HEADER_SIZE + index * ENTRY_SIZE + 12);
+	}
+}
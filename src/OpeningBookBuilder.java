@@ -0,0 +1,201 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles an opening book file for OpeningBook from a collection of game
+ * records. Each record is one game from the starting position written as
+ * ICCS moves separated by spaces (such as "h2e2 h9g7 h0g2"). The first moves
+ * of every game are played through, and each move is weighted by how many
+ * games played it in that position. A record stops at its first move that is
+ * not legal. Run with: java OpeningBookBuilder games.txt book.bin [-plies N]
+ * [-min N]
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class OpeningBookBuilder
+{
+	// Default number of moves of each game to put in the book and the number
+	// of games that must play a move for it to be kept
+	public static final int DEFAULT_PLIES = 20;
+	public static final int DEFAULT_MIN_GAMES = 1;
+
+	// The weight of each move (from square times 256 plus to square) of each
+	// position by key
+	private final Map<Long, Map<Integer, Integer>> positions;
+	private final int plies;
+	private int games;
+
+	/**
+	 * Constructs a new empty OpeningBookBuilder.
+	 * @param plies the number of moves of each game to put in the book
+	 */
+	public OpeningBookBuilder(int plies)
+	{
+		this.plies = plies;
+		positions = new HashMap<Long, Map<Integer, Integer>>();
+	}
+
+	/**
+	 * Runs the builder.
+	 * @param args the game records file and book file followed by the options
+	 * @throws IOException if the files cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		int plies = DEFAULT_PLIES;
+		int minGames = DEFAULT_MIN_GAMES;
+		boolean valid = args.length >= 2 && !args[0].startsWith("-")
+				&& !args[1].startsWith("-");
+		try
+		{
+			for (int arg = 2; arg < args.length && valid; arg++)
+			{
+				if (args[arg].equals("-plies") && arg + 1 < args.length)
+					plies = Integer.parseInt(args[++arg]);
+				else if (args[arg].equals("-min") && arg + 1 < args.length)
+					minGames = Integer.parseInt(args[++arg]);
+				else
+					valid = false;
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			valid = false;
+		}
+		if (!valid || plies < 1 || minGames < 1)
+		{
+			System.out.println("Usage: java OpeningBookBuilder games.txt "
+					+ "book.bin [-plies N] [-min N]");
+			return;
+		}
+
+		// Lines starting with # are comments
+		List<String> records = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new FileReader(args[0]));
+		try
+		{
+			String line;
+			while ((line = in.readLine()) != null)
+				if (!line.trim().isEmpty() && !line.startsWith("#"))
+					records.add(line);
+		}
+		finally
+		{
+			in.close();
+		}
+
+		OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+		builder.addGames(records);
+		int entries = builder.write(new File(args[1]), minGames);
+		System.out.printf("Games: %d%nPositions: %d%nEntries: %d%n",
+				builder.games, builder.positions.size(), entries);
+	}
+
+	/**
+	 * Adds each of the given game records to the book.
+	 * @param records the game records
+	 */
+	public void addGames(Collection<String> records)
+	{
+		for (String record : records)
+			addGame(record);
+	}
+
+	/**
+	 * Adds the first moves of a game record to the book.
+	 * @param record the ICCS moves of the game separated by spaces
+	 * @return the number of moves added (fewer than asked for if the game
+	 *         is shorter or has a move that is not legal)
+	 */
+	public int addGame(String record)
+	{
+		games++;
+		Position position = new Position(Position.START_FEN);
+		String[] iccsMoves = record.trim().split("\\s+");
+		int ply = 0;
+		while (ply < plies && ply < iccsMoves.length)
+		{
+			int move = position.findMove(iccsMoves[ply]);
+			if (move == 0)
+				break;
+
+			Map<Integer, Integer> bookMoves = positions.get(position.getKey());
+			if (bookMoves == null)
+			{
+				bookMoves = new HashMap<Integer, Integer>();
+				positions.put(position.getKey(), bookMoves);
+			}
+			int bookMove = Position.from(move) << 8 | Position.to(move);
+			Integer weight = bookMoves.get(bookMove);
+			bookMoves.put(bookMove, weight == null ? 1 : weight + 1);
+
+			position.makeMove(move);
+			ply++;
+		}
+		return ply;
+	}
+
+	/**
+	 * Writes the book to a file, sorted by key and then by weight (highest
+	 * first) so that OpeningBook can binary search it.
+	 * @param file the book file
+	 * @param minGames the number of games that must play a move to keep it
+	 * @return the number of entries written
+	 * @throws IOException if the file cannot be written
+	 */
+	public int write(File file, int minGames) throws IOException
+	{
+		// Pack each entry's weight and move into one long so that a sort puts
+		// the heaviest move of each key first
+		List<long[]> entries = new ArrayList<long[]>();
+		for (Map.Entry<Long, Map<Integer, Integer>> position : positions
+				.entrySet())
+			for (Map.Entry<Integer, Integer> move : position.getValue()
+					.entrySet())
+				if (move.getValue() >= minGames)
+					entries.add(new long[] { position.getKey(),
+							(long) -move.getValue() << 32 | move.getKey() });
+		entries.sort(new Comparator<long[]>()
+		{
+			public int compare(long[] first, long[] second)
+			{
+				if (first[0] != second[0])
+					return Long.compare(first[0], second[0]);
+				return Long.compare(first[1], second[1]);
+			}
+		});
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try
+		{
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeInt(OpeningBook.VERSION);
+			out.writeInt(entries.size());
+			out.writeInt(0);
+			for (long[] entry : entries)
+			{
+				out.writeLong(entry[0]);
+				out.writeInt((int) entry[1]);
+				out.writeInt((int) -(entry[1] >> 32));
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+		return entries.size();
+	}
+}
@@ -0,0 +1,184 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree of a position to a fixed depth
+ * (perft) to check that the move generator is correct and to measure how fast
+ * it is. The moves at the last ply are counted without being made (bulk
+ * counting). Can print the count below each root move (divide) and can search
+ * the root moves in parallel on a ForkJoinPool. The known counts of the
+ * starting position are checked by PerftTest. Run with: java Perft [depth]
+ * [-fen FEN] [-divide] [-threads N]
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class Perft
+{
+	/**
+	 * Counts the leaf nodes of one root move's subtree on its own copy of the
+	 * position.
+	 */
+	private static class Subtree extends RecursiveTask<Long>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Position position;
+		private final int move;
+		private final int depth;
+
+		/**
+		 * Constructs a new Subtree task.
+		 * @param position the root position (copied so that the tasks do not
+		 *            share it)
+		 * @param move the root move
+		 * @param depth the depth below the root move
+		 */
+		Subtree(Position position, int move, int depth)
+		{
+			this.position = new Position(position);
+			this.move = move;
+			this.depth = depth;
+		}
+
+		/**
+		 * Makes the root move and counts the leaf nodes below it.
+		 * @return the number of leaf nodes
+		 */
+		protected Long compute()
+		{
+			position.makeMove(move);
+			return perft(position, depth,
+					new int[depth + 1][Position.MAX_MOVES]);
+		}
+	}
+
+	/**
+	 * Runs perft, or prints the usage if the arguments are not valid (such
+	 * as -h).
+	 * @param args the depth followed by the options
+	 */
+	public static void main(String[] args)
+	{
+		int depth = 4;
+		String fen = Position.START_FEN;
+		boolean divide = false;
+		int threads = 1;
+		boolean valid = true;
+		try
+		{
+			for (int arg = 0; arg < args.length && valid; arg++)
+			{
+				if (args[arg].equals("-fen") && arg + 1 < args.length)
+					fen = args[++arg];
+				else if (args[arg].equals("-divide"))
+					divide = true;
+				else if (args[arg].equals("-threads") && arg + 1 < args.length)
+					threads = Integer.parseInt(args[++arg]);
+				else if (args[arg].matches("\\d+"))
+					depth = Integer.parseInt(args[arg]);
+				else
+					valid = false;
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			valid = false;
+		}
+		if (!valid || threads < 1)
+		{
+			System.out.println("Usage: java Perft [depth] [-fen FEN] "
+					+ "[-divide] [-threads N]");
+			return;
+		}
+
+		long start = System.nanoTime();
+		long nodes = run(new Position(fen), depth, threads, divide);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("Nodes: %d%nTime: %.3f s%nNodes/sec: %.0f%n", nodes,
+				seconds, nodes / seconds);
+	}
+
+	/**
+	 * Counts the leaf nodes of a position, splitting the root moves across a
+	 * ForkJoinPool if more than one thread is used.
+	 * @param position the position
+	 * @param depth the depth to count to
+	 * @param threads the number of threads
+	 * @param divide true to print the count below each root move
+	 * @return the number of leaf nodes
+	 */
+	public static long run(Position position, int depth, int threads,
+			boolean divide)
+	{
+		if (depth == 0)
+			return 1;
+
+		int[] moves = new int[Position.MAX_MOVES];
+		int count = position.generateMoves(moves);
+		long[] counts = new long[count];
+		if (threads > 1 && depth > 1)
+		{
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			List<Subtree> tasks = new ArrayList<Subtree>(count);
+			for (int move = 0; move < count; move++)
+				tasks.add(new Subtree(position, moves[move], depth - 1));
+			for (Subtree task : tasks)
+				pool.execute(task);
+			for (int move = 0; move < count; move++)
+				counts[move] = tasks.get(move).join();
+			pool.shutdown();
+		}
+		else
+		{
+			int[][] moveStack = new int[depth][Position.MAX_MOVES];
+			for (int move = 0; move < count; move++)
+			{
+				position.makeMove(moves[move]);
+				counts[move] = perft(position, depth - 1, moveStack);
+				position.unmakeMove(moves[move]);
+			}
+		}
+
+		long nodes = 0;
+		for (int move = 0; move < count; move++)
+		{
+			if (divide)
+				System.out.println(Position.toIccs(moves[move]) + ": "
+						+ counts[move]);
+			nodes += counts[move];
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts the leaf nodes of a position.
+	 * @param position the position
+	 * @param depth the depth to count to
+	 * @param moveStack a move list for each ply so that nothing is allocated
+	 * @return the number of leaf nodes
+	 */
+	private static long perft(Position position, int depth, int[][] moveStack)
+	{
+		if (depth == 0)
+			return 1;
+
+		int[] moves = moveStack[depth];
+		int count = position.generateMoves(moves);
+
+		// Bulk counting: the moves at the last ply do not need to be made
+		if (depth == 1)
+			return count;
+
+		long nodes = 0;
+		for (int move = 0; move < count; move++)
+		{
+			position.makeMove(moves[move]);
+			nodes += perft(position, depth - 1, moveStack);
+			position.unmakeMove(moves[move]);
+		}
+		return nodes;
+	}
+}
@@ -29,9 +29,7 @@ public abstract class Piece extends Rectangle
 	public static final int RED = 0;
 	public static final int BLACK = 1;
 
-	// Static variables to keep track of the actual colour, as well as the board
-	// which all pieces will be placed on.
-	protected static ChessPoint[][] board;
+	// Static variable to keep track of the actual colour
 	protected static final Color[] COLOURS = { Color.RED, Color.GRAY };
 	public static final String[] COLOUR_NAMES = { "Red", "Black" };
 
@@ -39,8 +37,11 @@ public abstract class Piece extends Rectangle
 	public static final int WIDTH = GamePanel.SPACING - 20;
 	public static final int HEIGHT = GamePanel.SPACING - 20;
 
-	// Keeps track of the ChessPoint which both generals are on.
-	public static ChessPoint[] posOfGeneral = new ChessPoint[2];
+	// Keeps track of the board of this piece's game and the ChessPoints which
+	// both generals of that game are on. Each game has its own, so that many
+	// games can be played at once.
+	protected ChessPoint[][] board;
+	protected ChessPoint[] posOfGeneral;
 
 	// Instance variables to keep track of the ChessPoint this piece is on, its
 	// colour and image as well as whether it is captured or not.
@@ -56,18 +57,17 @@ public abstract class Piece extends Rectangle
 	protected int maxMoves;
 
 	/**
-	 * Initializes the board which all pieces will be placed on. Also initialize
-	 * the original positions of the generals.
+	 * Links this piece to the board of its game, which it will be placed on.
+	 * Every piece of a game shares the same positions of the generals.
 	 * 
-	 * @param board The array of chessPoints which every piece will be placed
+	 * @param board The array of chessPoints which this piece will be placed
 	 *            on.
+	 * @param posOfGeneral The ChessPoints which both generals are on
 	 */
-	public static void linkBoard(ChessPoint[][] board)
+	public void linkBoard(ChessPoint[][] board, ChessPoint[] posOfGeneral)
 	{
-		Piece.board = board;
-		posOfGeneral[RED] = board[9][4];
-		posOfGeneral[BLACK] = board[0][4];
-
+		this.board = board;
+		this.posOfGeneral = posOfGeneral;
 	}
 
 	/**
@@ -145,13 +145,13 @@ public abstract class Piece extends Rectangle
 		x = point.x + (point.width - this.width) / 2;
 		y = point.y + (point.height - this.height) / 2;
 
-		// Update the static positions of the generals if a general was moved.
+		// Update the positions of the generals if a general was moved.
 		if (this instanceof General)
 		{
 			if (this.colour == Piece.BLACK)
-				Piece.posOfGeneral[BLACK] = toPoint;
+				posOfGeneral[BLACK] = toPoint;
 			else
-				Piece.posOfGeneral[RED] = toPoint;
+				posOfGeneral[RED] = toPoint;
 		}
 
 		return captured;
@@ -294,12 +294,12 @@ public abstract class Piece extends Rectangle
 			// then its a legit move.
 			if (this.colour == Piece.RED)
 			{
-				if (!(((General) Piece.posOfGeneral[RED].getPiece())
-						.checkForCheck(Piece.posOfGeneral[RED])))
+				if (!(((General) posOfGeneral[RED].getPiece())
+						.checkForCheck(posOfGeneral[RED])))
 					allLegitMoves.add(eachMove);
 			}
-			else if (!(((General) Piece.posOfGeneral[BLACK].getPiece())
-					.checkForCheck(Piece.posOfGeneral[BLACK])))
+			else if (!(((General) posOfGeneral[BLACK].getPiece())
+					.checkForCheck(posOfGeneral[BLACK])))
 				allLegitMoves.add(eachMove);
 
 			// return the board back to how it was before each move was tried
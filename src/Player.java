@@ -103,12 +103,38 @@ public class Player
 	 */
 	public int getStatus()
 	{
-		if (((General) pieces[pieces.length - 1])
-				.checkForCheck(Piece.posOfGeneral[colour]))
+		General general = (General) pieces[pieces.length - 1];
+		if (general.checkForCheck(general.posOfGeneral[colour]))
 			return Player.CHECK;
 		return Player.NO_CHECK;
 	}
 
+	/**
+	 * Links the pieces of this player to the board of its game.
+	 * @param board the board of the game
+	 * @param posOfGeneral the ChessPoints which both generals of the game are
+	 *            on (shared with the other player)
+	 */
+	public void linkBoard(ChessPoint[][] board, ChessPoint[] posOfGeneral)
+	{
+		for (Piece piece : pieces)
+			piece.linkBoard(board, posOfGeneral);
+	}
+
+	/**
+	 * Updates the values of this player's pieces that decay or grow as the
+	 * game goes on.
+	 * @param noOfMoves the number of moves made in the game
+	 */
+	public void updatePieceValues(int noOfMoves)
+	{
+		for (Piece piece : pieces)
+			if (piece instanceof Cannon)
+				((Cannon) piece).updatePieceValue(noOfMoves);
+			else if (piece instanceof Horse)
+				((Horse) piece).updatePieceValue(noOfMoves);
+	}
+
 	/**
 	 * Resets the pieces of this player to original locations.
 	 * @param board the board to reset the pieces on
@@ -0,0 +1,1620 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Keeps track of a search-only Chinese chess position. The board is a 90 square
+ * byte mailbox (index = row * 9 + column) plus a piece list for each side so
+ * that the AI never has to touch the ChessPoints or Pieces (which are AWT
+ * Rectangles) while it is searching. Moves are packed into ints that store the
+ * from square, to square, moved piece and captured piece. Can generate moves,
+ * make and unmake moves, detect checks and evaluate the position. Also keeps
+ * an incrementally updated 64-bit Zobrist key for the transposition table and
+ * incrementally updated material, position and central control values.
+ * Mobility is counted from precomputed ray and horse jump tables.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class Position
+{
+	// Piece types, a piece code is its type plus 8 if the piece is black
+	public static final int EMPTY = 0;
+	public static final int GENERAL = 1;
+	public static final int ADVISOR = 2;
+	public static final int ELEPHANT = 3;
+	public static final int HORSE = 4;
+	public static final int CHARIOT = 5;
+	public static final int CANNON = 6;
+	public static final int SOLDIER = 7;
+
+	private static final int BLACK_FLAG = 8;
+
+	// The FEN string of the starting position
+	public static final String START_FEN = "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/"
+			+ "P1P1P1P1P/1C5C1/9/RNBAKABNR w";
+
+	// Board dimensions and the size of a move list
+	public static final int NO_OF_SQUARES = GamePanel.NO_OF_ROWS
+			* GamePanel.NO_OF_COLS;
+	public static final int MAX_MOVES = 256;
+	private static final int MAX_HISTORY = 1024;
+	public static final int NO_SQUARE = -1;
+
+	// Piece square tables for red by piece type, black uses the mirrored row
+	private static final int[][] POSITION_VALUES = new int[8][];
+
+	// The maximum number of moves used for the mobility value by type
+	private static final int[] MAX_MOVES_BY_TYPE = { 0, 4, 4, 4, 8, 17, 17, 3 };
+
+	// Directions used by the move generator
+	private static final int[] ORTHOGONAL_DROW = { -1, 0, +1, 0 };
+	private static final int[] ORTHOGONAL_DCOL = { 0, +1, 0, -1 };
+	private static final int[] DIAGONAL_DROW = { -1, +1, +1, -1 };
+	private static final int[] DIAGONAL_DCOL = { +1, +1, -1, -1 };
+
+	// Zobrist keys by piece code and square, plus one for black to move. A
+	// fixed seed keeps the keys the same between runs.
+	private static final long[][] ZOBRIST_KEYS = new long[16][NO_OF_SQUARES];
+	private static final long BLACK_TO_MOVE_KEY;
+
+	// The squares along each orthogonal direction from every square (nearest
+	// first), and the squares a horse can jump to from every square along
+	// with the leg square that must be empty for each jump
+	private static final int[][][] RAYS = new int[NO_OF_SQUARES][4][];
+	private static final int[][] HORSE_JUMPS = new int[NO_OF_SQUARES][];
+	private static final int[][] HORSE_LEGS = new int[NO_OF_SQUARES][];
+
+	static
+	{
+		Random random = new Random(20151220);
+		for (long[] keys : ZOBRIST_KEYS)
+			for (int square = 0; square < NO_OF_SQUARES; square++)
+				keys[square] = random.nextLong();
+		BLACK_TO_MOVE_KEY = random.nextLong();
+
+		POSITION_VALUES[GENERAL] = flatten(General.BOARD_VALUE);
+		POSITION_VALUES[ADVISOR] = flatten(Advisor.BOARD_VALUE);
+		POSITION_VALUES[ELEPHANT] = flatten(Elephant.BOARD_VALUE);
+		POSITION_VALUES[HORSE] = flatten(Horse.BOARD_VALUE);
+		POSITION_VALUES[CHARIOT] = flatten(Chariot.BOARD_VALUE);
+		POSITION_VALUES[CANNON] = flatten(Cannon.BOARD_VALUE);
+		POSITION_VALUES[SOLDIER] = flatten(Soldier.BOARD_VALUE);
+
+		for (int square = 0; square < NO_OF_SQUARES; square++)
+		{
+			int row = row(square);
+			int col = column(square);
+			for (int dir = 0; dir < 4; dir++)
+			{
+				int[] ray = new int[9];
+				int length = 0;
+				int newRow = row + ORTHOGONAL_DROW[dir];
+				int newCol = col + ORTHOGONAL_DCOL[dir];
+				while (newRow >= 0 && newRow <= 9 && newCol >= 0 && newCol <= 8)
+				{
+					ray[length++] = toSquare(newRow, newCol);
+					newRow += ORTHOGONAL_DROW[dir];
+					newCol += ORTHOGONAL_DCOL[dir];
+				}
+				RAYS[square][dir] = Arrays.copyOf(ray, length);
+			}
+
+			int[] jumps = new int[8];
+			int[] legs = new int[8];
+			int count = 0;
+			for (int dir = 0; dir < 8; dir++)
+			{
+				int newRow = row + Horse.DROW[dir];
+				int newCol = col + Horse.DCOL[dir];
+				if (newRow < 0 || newRow > 9 || newCol < 0 || newCol > 8)
+					continue;
+				jumps[count] = toSquare(newRow, newCol);
+				legs[count++] = toSquare(row + Horse.DROW_BLOCK[dir], col
+						+ Horse.DCOL_BLOCK[dir]);
+			}
+			HORSE_JUMPS[square] = Arrays.copyOf(jumps, count);
+			HORSE_LEGS[square] = Arrays.copyOf(legs, count);
+		}
+	}
+
+	// The mailbox, the piece list (square of each piece or NO_SQUARE when
+	// captured) and the piece list index of the piece on each square
+	private final byte[] squares;
+	private final int[] pieceSquares;
+	private final byte[] pieceCodes;
+	private final byte[] indexAt;
+
+	// Piece values by type (taken from the Pieces since some of them change
+	// as the game goes on), the side to move and the captured piece indexes
+	// so that moves can be unmade
+	private final int[] pieceValues;
+	private int sideToMove;
+	private final int[] capturedIndexes;
+	private int ply;
+
+	// The Zobrist key of this position and the keys before each move made
+	private long key;
+	private final long[] keyHistory;
+
+	// The value of every piece code on every square (piece value, position
+	// value and central control) and the sum of those values for each side,
+	// kept up to date as moves are made
+	private final int[][] squareValues;
+	private final int[] staticValues;
+
+	// Reusable move list for the old flexibility value and the gains of each
+	// capture of a static exchange so that they do not create any garbage
+	private final int[] pieceMoves;
+	private final int[] exchangeGains;
+
+	/**
+	 * Constructs a new empty Position with the given side to move.
+	 * @param sideToMove the colour of the player to move
+	 */
+	private Position(int sideToMove)
+	{
+		squares = new byte[NO_OF_SQUARES];
+		pieceSquares = new int[32];
+		pieceCodes = new byte[32];
+		indexAt = new byte[NO_OF_SQUARES];
+		capturedIndexes = new int[MAX_HISTORY];
+		keyHistory = new long[MAX_HISTORY];
+		pieceMoves = new int[MAX_MOVES];
+		exchangeGains = new int[32];
+		squareValues = new int[16][NO_OF_SQUARES];
+		staticValues = new int[2];
+		this.sideToMove = sideToMove;
+		if (sideToMove == Piece.BLACK)
+			key = BLACK_TO_MOVE_KEY;
+
+		for (int index = 0; index < pieceSquares.length; index++)
+			pieceSquares[index] = NO_SQUARE;
+		for (int square = 0; square < NO_OF_SQUARES; square++)
+			indexAt[square] = NO_SQUARE;
+
+		pieceValues = new int[] { 0, General.pieceValue, Advisor.pieceValue,
+				Elephant.pieceValue, Horse.BASE_VALUE, Chariot.pieceValue,
+				Cannon.BASE_VALUE, Soldier.pieceValue };
+	}
+
+	/**
+	 * Constructs a new Position from the given board of chess points. The
+	 * generals always take the first slot of each side's piece list.
+	 * @param board the board of chess points
+	 * @param sideToMove the colour of the player to move
+	 */
+	public Position(ChessPoint[][] board, int sideToMove)
+	{
+		this(sideToMove);
+		for (int row = 0; row < GamePanel.NO_OF_ROWS; row++)
+			for (int col = 0; col < GamePanel.NO_OF_COLS; col++)
+			{
+				Piece piece = board[row][col].getPiece();
+				if (piece != null)
+				{
+					int type = typeOf(piece);
+					pieceValues[type] = piece.getPieceValue();
+					placePiece(toSquare(row, col), type, piece.colour);
+				}
+			}
+		initValues();
+	}
+
+	/**
+	 * Constructs a new Position from a FEN string such as
+	 * "rnbakabnr/9/1c5c1/p1p1p1p1p/9/9/P1P1P1P1P/1C5C1/9/RNBAKABNR w". The
+	 * first rank is black's back rank, upper case letters are red pieces and
+	 * the side to move is "w" or "r" for red and "b" for black.
+	 * @param fen the FEN string
+	 */
+	public Position(String fen)
+	{
+		this(fen.trim().matches("\\S+\\s+[bB].*") ? Piece.BLACK : Piece.RED);
+
+		String[] rows = fen.trim().split("\\s+")[0].split("/");
+		if (rows.length != GamePanel.NO_OF_ROWS)
+			throw new IllegalArgumentException("Bad FEN: " + fen);
+
+		for (int row = 0; row < rows.length; row++)
+		{
+			int col = 0;
+			for (char letter : rows[row].toCharArray())
+			{
+				if (Character.isDigit(letter))
+					col += letter - '0';
+				else
+				{
+					int type = "?kabnrcp".indexOf(Character.toLowerCase(letter));
+					if (type <= 0 || col >= GamePanel.NO_OF_COLS)
+						throw new IllegalArgumentException("Bad FEN: " + fen);
+					placePiece(toSquare(row, col++), type,
+							Character.isUpperCase(letter) ? Piece.RED
+									: Piece.BLACK);
+				}
+			}
+		}
+		initValues();
+	}
+
+	/**
+	 * Constructs a copy of the given Position (so that each search thread
+	 * can have its own).
+	 * @param other the Position to copy
+	 */
+	public Position(Position other)
+	{
+		squares = other.squares.clone();
+		pieceSquares = other.pieceSquares.clone();
+		pieceCodes = other.pieceCodes.clone();
+		indexAt = other.indexAt.clone();
+		pieceValues = other.pieceValues.clone();
+		capturedIndexes = other.capturedIndexes.clone();
+		keyHistory = other.keyHistory.clone();
+		pieceMoves = new int[MAX_MOVES];
+		exchangeGains = new int[32];
+		squareValues = new int[16][];
+		for (int code = 0; code < squareValues.length; code++)
+			squareValues[code] = other.squareValues[code].clone();
+		staticValues = other.staticValues.clone();
+		sideToMove = other.sideToMove;
+		ply = other.ply;
+		key = other.key;
+	}
+
+	/**
+	 * Sets up this position again with only the given pieces and no moves
+	 * made (so that the tablebase generator can reuse one Position for every
+	 * position it looks at). The pieces take the slots of their side's piece
+	 * list in the given order after the general.
+	 * @param codes the piece codes
+	 * @param pieceSquares the square of each piece
+	 * @param count the number of pieces
+	 * @param sideToMove the colour of the player to move
+	 * @return false if two pieces are on the same square
+	 */
+	public boolean setPieces(int[] codes, int[] pieceSquares, int count,
+			int sideToMove)
+	{
+		Arrays.fill(squares, (byte) EMPTY);
+		Arrays.fill(indexAt, (byte) NO_SQUARE);
+		Arrays.fill(this.pieceSquares, NO_SQUARE);
+		Arrays.fill(pieceCodes, (byte) EMPTY);
+		Arrays.fill(staticValues, 0);
+		this.sideToMove = sideToMove;
+		ply = 0;
+		key = sideToMove == Piece.BLACK ? BLACK_TO_MOVE_KEY : 0;
+
+		for (int piece = 0; piece < count; piece++)
+		{
+			if (squares[pieceSquares[piece]] != EMPTY)
+				return false;
+			placePiece(pieceSquares[piece], type(codes[piece]),
+					colour(codes[piece]));
+		}
+		for (int index = 0; index < this.pieceSquares.length; index++)
+			if (this.pieceSquares[index] != NO_SQUARE)
+				staticValues[index / 16] += squareValues[pieceCodes[index]]
+						[this.pieceSquares[index]];
+		return true;
+	}
+
+	/**
+	 * Places a piece on an empty square while setting up a position. The
+	 * generals always take the first slot of each side's piece list.
+	 * @param square the square to put the piece on
+	 * @param type the piece type
+	 * @param colour the colour of the piece
+	 */
+	private void placePiece(int square, int type, int colour)
+	{
+		int index = colour * 16;
+		if (type != GENERAL)
+		{
+			index++;
+			while (index < colour * 16 + 16 && pieceCodes[index] != EMPTY)
+				index++;
+		}
+		if (index == colour * 16 + 16 || pieceCodes[index] != EMPTY)
+			throw new IllegalArgumentException("Too many pieces");
+
+		squares[square] = (byte) codeOf(type, colour);
+		pieceSquares[index] = square;
+		pieceCodes[index] = squares[square];
+		indexAt[square] = (byte) index;
+		key ^= ZOBRIST_KEYS[squares[square]][square];
+	}
+
+	/**
+	 * Fills in the value of every piece code on every square and sums up the
+	 * values of the pieces on the board (once the pieces are placed).
+	 */
+	private void initValues()
+	{
+		for (int code = 0; code < squareValues.length; code++)
+		{
+			int type = type(code);
+			if (type == EMPTY)
+				continue;
+
+			for (int square = 0; square < NO_OF_SQUARES; square++)
+			{
+				int value = pieceValues[type] + positionValue(code, square);
+
+				// Central control for every piece except the generals
+				int row = row(square);
+				int col = column(square);
+				if (type != GENERAL && row >= 2 && row <= 7 && col >= 2
+						&& col <= 6)
+					value += pieceValues[type] / 10;
+				squareValues[code][square] = value;
+			}
+		}
+
+		for (int index = 0; index < pieceSquares.length; index++)
+			if (pieceSquares[index] != NO_SQUARE)
+				staticValues[index / 16] += squareValues[pieceCodes[index]]
+						[pieceSquares[index]];
+	}
+
+	/**
+	 * Converts this position to a FEN string.
+	 * @return the FEN string of this position
+	 */
+	public String toFen()
+	{
+		StringBuilder fen = new StringBuilder();
+		for (int row = 0; row < GamePanel.NO_OF_ROWS; row++)
+		{
+			int empty = 0;
+			for (int col = 0; col < GamePanel.NO_OF_COLS; col++)
+			{
+				int code = squares[toSquare(row, col)];
+				if (code == EMPTY)
+					empty++;
+				else
+				{
+					if (empty > 0)
+						fen.append(empty);
+					empty = 0;
+					char letter = "?kabnrcp".charAt(type(code));
+					if (colour(code) == Piece.RED)
+						letter = Character.toUpperCase(letter);
+					fen.append(letter);
+				}
+			}
+			if (empty > 0)
+				fen.append(empty);
+			if (row < GamePanel.NO_OF_ROWS - 1)
+				fen.append('/');
+		}
+		return fen.append(sideToMove == Piece.RED ? " w" : " b").toString();
+	}
+
+	/**
+	 * Converts a packed move to ICCS coordinates (columns a to i from left
+	 * to right, rows 0 to 9 from red's side).
+	 * @param move the packed move
+	 * @return the move, such as h2e2
+	 */
+	public static String toIccs(int move)
+	{
+		return toIccsSquare(from(move)) + toIccsSquare(to(move));
+	}
+
+	/**
+	 * Finds the legal move with the given ICCS coordinates in this position.
+	 * @param iccs the move, such as h2e2 (or h2-e2)
+	 * @return the packed move or 0 if it is not a legal move
+	 */
+	public int findMove(String iccs)
+	{
+		iccs = iccs.replace("-", "").toLowerCase();
+		int[] moves = new int[MAX_MOVES];
+		int noOfMoves = generateMoves(moves);
+		for (int index = 0; index < noOfMoves; index++)
+			if (toIccs(moves[index]).equals(iccs))
+				return moves[index];
+		return 0;
+	}
+
+	/**
+	 * Converts a square to ICCS coordinates.
+	 * @param square the square index
+	 * @return the square, such as e0
+	 */
+	private static String toIccsSquare(int square)
+	{
+		return "" + (char) ('a' + column(square)) + (9 - row(square));
+	}
+
+	/**
+	 * Determines the piece type of the given Piece.
+	 * @param piece the Piece to get the type of
+	 * @return the piece type
+	 */
+	public static int typeOf(Piece piece)
+	{
+		if (piece instanceof General)
+			return GENERAL;
+		if (piece instanceof Advisor)
+			return ADVISOR;
+		if (piece instanceof Elephant)
+			return ELEPHANT;
+		if (piece instanceof Horse)
+			return HORSE;
+		if (piece instanceof Chariot)
+			return CHARIOT;
+		if (piece instanceof Cannon)
+			return CANNON;
+		return SOLDIER;
+	}
+
+	/**
+	 * Makes a new Piece of the given piece code (the opposite of typeOf).
+	 * @param code the piece code
+	 * @param pieceNo the number of the new Piece
+	 * @return the new Piece
+	 */
+	static Piece newPiece(int code, int pieceNo)
+	{
+		int colour = colour(code);
+		switch (type(code))
+		{
+		case GENERAL:
+			return new General(colour, pieceNo);
+		case ADVISOR:
+			return new Advisor(colour, pieceNo);
+		case ELEPHANT:
+			return new Elephant(colour, pieceNo);
+		case HORSE:
+			return new Horse(colour, pieceNo);
+		case CHARIOT:
+			return new Chariot(colour, pieceNo);
+		case CANNON:
+			return new Cannon(colour, pieceNo);
+		default:
+			return new Soldier(colour, pieceNo);
+		}
+	}
+
+	/**
+	 * Sets up an empty board of ChessPoints with new Pieces for this
+	 * position.
+	 * @param board the board
+	 * @param posOfGeneral the ChessPoints which both generals are on
+	 */
+	void setUpBoard(ChessPoint[][] board, ChessPoint[] posOfGeneral)
+	{
+		int pieceNo = 0;
+		for (int row = 0; row < GamePanel.NO_OF_ROWS; row++)
+			for (int col = 0; col < GamePanel.NO_OF_COLS; col++)
+			{
+				int code = pieceAt(toSquare(row, col));
+				if (code == EMPTY)
+					continue;
+
+				Piece piece = newPiece(code, pieceNo++);
+				piece.linkBoard(board, posOfGeneral);
+				piece.placeOn(board[row][col]);
+			}
+	}
+
+	/**
+	 * Gets the piece code of a piece with the given type and colour.
+	 * @param type the piece type
+	 * @param colour the colour of the piece
+	 * @return the piece code
+	 */
+	public static int codeOf(int type, int colour)
+	{
+		if (colour == Piece.BLACK)
+			return type | BLACK_FLAG;
+		return type;
+	}
+
+	/**
+	 * Gets the piece type of the given piece code.
+	 * @param code the piece code
+	 * @return the piece type
+	 */
+	public static int type(int code)
+	{
+		return code & 7;
+	}
+
+	/**
+	 * Gets the colour of the given piece code (assumes it is not empty).
+	 * @param code the piece code
+	 * @return the colour of the piece
+	 */
+	public static int colour(int code)
+	{
+		return code >> 3;
+	}
+
+	/**
+	 * Packs a move into an int.
+	 * @param from the square the piece came from
+	 * @param to the square the piece went to
+	 * @param moved the code of the moved piece
+	 * @param captured the code of the captured piece (EMPTY if none)
+	 * @return the packed move
+	 */
+	public static int move(int from, int to, int moved, int captured)
+	{
+		return from | to << 7 | moved << 14 | captured << 18;
+	}
+
+	/**
+	 * Gets the from square of a packed move.
+	 * @param move the packed move
+	 * @return the square the piece came from
+	 */
+	public static int from(int move)
+	{
+		return move & 0x7F;
+	}
+
+	/**
+	 * Gets the to square of a packed move.
+	 * @param move the packed move
+	 * @return the square the piece went to
+	 */
+	public static int to(int move)
+	{
+		return move >>> 7 & 0x7F;
+	}
+
+	/**
+	 * Gets the moved piece code of a packed move.
+	 * @param move the packed move
+	 * @return the code of the moved piece
+	 */
+	public static int moved(int move)
+	{
+		return move >>> 14 & 0xF;
+	}
+
+	/**
+	 * Gets the captured piece code of a packed move.
+	 * @param move the packed move
+	 * @return the code of the captured piece or EMPTY if none
+	 */
+	public static int captured(int move)
+	{
+		return move >>> 18 & 0xF;
+	}
+
+	/**
+	 * Gets the row of the given square.
+	 * @param square the square index
+	 * @return the row index of the board
+	 */
+	public static int row(int square)
+	{
+		return square / GamePanel.NO_OF_COLS;
+	}
+
+	/**
+	 * Gets the column of the given square.
+	 * @param square the square index
+	 * @return the column index of the board
+	 */
+	public static int column(int square)
+	{
+		return square % GamePanel.NO_OF_COLS;
+	}
+
+	/**
+	 * Gets the colour of the player to move.
+	 * @return the colour of the player to move
+	 */
+	public int getSideToMove()
+	{
+		return sideToMove;
+	}
+
+	/**
+	 * Gets the Zobrist key of this position.
+	 * @return the 64-bit Zobrist key
+	 */
+	public long getKey()
+	{
+		return key;
+	}
+
+	/**
+	 * Gets the piece code on the given square.
+	 * @param square the square index
+	 * @return the piece code or EMPTY
+	 */
+	public int pieceAt(int square)
+	{
+		return squares[square];
+	}
+
+	/**
+	 * Gets the square of the piece in the given slot of the piece lists (red
+	 * in slots 0 to 15 and black in 16 to 31, the generals first).
+	 * @param index the slot
+	 * @return the square index or NO_SQUARE if there is no piece in the slot
+	 */
+	public int getPieceSquare(int index)
+	{
+		return pieceSquares[index];
+	}
+
+	/**
+	 * Gets the code of the piece in the given slot of the piece lists.
+	 * @param index the slot
+	 * @return the piece code (the code of the last piece in the slot if it
+	 *         was captured)
+	 */
+	public int getPieceCode(int index)
+	{
+		return pieceCodes[index];
+	}
+
+	/**
+	 * Gets the value of the given piece type.
+	 * @param type the piece type
+	 * @return the piece value
+	 */
+	public int getPieceValue(int type)
+	{
+		return pieceValues[type];
+	}
+
+	/**
+	 * Gets the position value of a piece on the given square.
+	 * @param code the piece code
+	 * @param square the square index
+	 * @return the position value
+	 */
+	public static int positionValue(int code, int square)
+	{
+		if (colour(code) == Piece.RED)
+			return POSITION_VALUES[type(code)][square];
+		return POSITION_VALUES[type(code)][mirror(square)];
+	}
+
+	/**
+	 * Executes the given move and changes the side to move.
+	 * @param move the packed move to make
+	 */
+	public void makeMove(int move)
+	{
+		int from = from(move);
+		int to = to(move);
+		int index = indexAt[from];
+		int capturedIndex = indexAt[to];
+		keyHistory[ply] = key;
+		capturedIndexes[ply++] = capturedIndex;
+
+		// Remove the captured piece from its piece list
+		if (capturedIndex != NO_SQUARE)
+		{
+			pieceSquares[capturedIndex] = NO_SQUARE;
+			key ^= ZOBRIST_KEYS[squares[to]][to];
+			staticValues[colour(squares[to])] -= squareValues[squares[to]][to];
+		}
+
+		// Update the key for the moved piece and the side to move
+		long[] movedKeys = ZOBRIST_KEYS[squares[from]];
+		key ^= movedKeys[from] ^ movedKeys[to] ^ BLACK_TO_MOVE_KEY;
+		int[] movedValues = squareValues[squares[from]];
+		staticValues[colour(squares[from])] += movedValues[to]
+				- movedValues[from];
+
+		squares[to] = squares[from];
+		squares[from] = EMPTY;
+		indexAt[to] = (byte) index;
+		indexAt[from] = NO_SQUARE;
+		pieceSquares[index] = to;
+
+		sideToMove ^= 1;
+	}
+
+	/**
+	 * Undos the given move (must be the last move made).
+	 * @param move the packed move to unmake
+	 */
+	public void unmakeMove(int move)
+	{
+		int from = from(move);
+		int to = to(move);
+		int index = indexAt[to];
+		int capturedIndex = capturedIndexes[--ply];
+		key = keyHistory[ply];
+		sideToMove ^= 1;
+
+		int[] movedValues = squareValues[squares[to]];
+		staticValues[colour(squares[to])] -= movedValues[to]
+				- movedValues[from];
+
+		squares[from] = squares[to];
+		indexAt[from] = (byte) index;
+		pieceSquares[index] = from;
+
+		// Put back the captured piece if there was one
+		squares[to] = (byte) captured(move);
+		indexAt[to] = (byte) capturedIndex;
+		if (capturedIndex != NO_SQUARE)
+		{
+			pieceSquares[capturedIndex] = to;
+			staticValues[colour(squares[to])] += squareValues[squares[to]][to];
+		}
+	}
+
+	/**
+	 * Passes the turn to the other side without moving a piece (used by the
+	 * null move pruning of the search, it is not a legal move).
+	 */
+	public void makeNullMove()
+	{
+		keyHistory[ply] = key;
+		capturedIndexes[ply++] = NO_SQUARE;
+		key ^= BLACK_TO_MOVE_KEY;
+		sideToMove ^= 1;
+	}
+
+	/**
+	 * Undos a null move (must be the last move made).
+	 */
+	public void unmakeNullMove()
+	{
+		key = keyHistory[--ply];
+		sideToMove ^= 1;
+	}
+
+	/**
+	 * Determines if the given side still has a chariot, horse or cannon. A
+	 * side with only soldiers, advisors and elephants is the most likely to
+	 * be in zugzwang, where any move makes its position worse.
+	 * @param side the colour of the side
+	 * @return true if the side has a chariot, horse or cannon
+	 */
+	public boolean hasAttackingPieces(int side)
+	{
+		for (int index = side * 16 + 1; index < side * 16 + 16; index++)
+		{
+			int type = type(pieceCodes[index]);
+			if (pieceSquares[index] != NO_SQUARE
+					&& (type == CHARIOT || type == HORSE || type == CANNON))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Generates all legal moves for the side to move.
+	 * @param moves the array to put the packed moves in
+	 * @return the number of moves generated
+	 */
+	public int generateMoves(int[] moves)
+	{
+		int count = generatePseudoMoves(sideToMove, moves, true);
+		return removeIllegalMoves(moves, 0, count);
+	}
+
+	/**
+	 * Generates all legal captures for the side to move.
+	 * @param moves the array to put the packed moves in
+	 * @return the number of captures generated
+	 */
+	public int generateCaptures(int[] moves)
+	{
+		int count = generatePseudoMoves(sideToMove, moves, true);
+		int captures = 0;
+		for (int index = 0; index < count; index++)
+			if (captured(moves[index]) != EMPTY)
+				moves[captures++] = moves[index];
+		return removeIllegalMoves(moves, 0, captures);
+	}
+
+	/**
+	 * Generates all moves for the given side without checking if they leave
+	 * the side's general in check.
+	 * @param side the colour to generate moves for
+	 * @param moves the array to put the packed moves in
+	 * @param allPieces false to skip the advisors and elephants (which can
+	 *            never give check)
+	 * @return the number of moves generated
+	 */
+	public int generatePseudoMoves(int side, int[] moves, boolean allPieces)
+	{
+		int count = 0;
+		for (int index = side * 16; index < side * 16 + 16; index++)
+		{
+			int square = pieceSquares[index];
+			if (square == NO_SQUARE)
+				continue;
+
+			int type = type(pieceCodes[index]);
+			if (allPieces || (type != ADVISOR && type != ELEPHANT))
+				count = generatePieceMoves(square, moves, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Removes the moves that would leave the mover's general in check.
+	 * @param moves the array of packed moves
+	 * @param start the index of the first move to check
+	 * @param end the index after the last move to check
+	 * @return the index after the last legal move
+	 */
+	private int removeIllegalMoves(int[] moves, int start, int end)
+	{
+		int count = start;
+		for (int index = start; index < end; index++)
+		{
+			int move = moves[index];
+			int side = colour(moved(move));
+			makeMove(move);
+			if (!isChecked(side))
+				moves[count++] = move;
+			unmakeMove(move);
+		}
+		return count;
+	}
+
+	/**
+	 * Generates the moves of the piece on the given square.
+	 * @param square the square of the piece
+	 * @param moves the array to put the packed moves in
+	 * @param count the number of moves already in the array
+	 * @return the new number of moves in the array
+	 */
+	private int generatePieceMoves(int square, int[] moves, int count)
+	{
+		int code = squares[square];
+		int colour = colour(code);
+		int row = row(square);
+		int col = column(square);
+
+		switch (type(code))
+		{
+		case GENERAL:
+			for (int dir = 0; dir < 4; dir++)
+			{
+				int newRow = row + ORTHOGONAL_DROW[dir];
+				int newCol = col + ORTHOGONAL_DCOL[dir];
+				if (newRow < 0 || newRow > 9 || newCol < 3 || newCol > 5)
+					continue;
+
+				// Step within the palace
+				if ((colour == Piece.BLACK && newRow < 3)
+						|| (colour == Piece.RED && newRow > 6))
+					count = addMove(square, newRow, newCol, moves, count);
+
+				// Capture the other general if the two are facing each other
+				if (ORTHOGONAL_DCOL[dir] == 0)
+				{
+					while (newRow >= 0 && newRow <= 9
+							&& squares[toSquare(newRow, newCol)] == EMPTY)
+						newRow += ORTHOGONAL_DROW[dir];
+					if (newRow >= 0 && newRow <= 9)
+					{
+						int target = squares[toSquare(newRow, newCol)];
+						if (type(target) == GENERAL && colour(target) != colour)
+							count = addMove(square, newRow, newCol, moves,
+									count);
+					}
+				}
+			}
+			break;
+
+		case ADVISOR:
+			for (int dir = 0; dir < 4; dir++)
+			{
+				int newRow = row + DIAGONAL_DROW[dir];
+				int newCol = col + DIAGONAL_DCOL[dir];
+				if (newCol >= 3 && newCol <= 5
+						&& ((colour == Piece.BLACK && newRow >= 0 && newRow <= 2)
+						|| (colour == Piece.RED && newRow >= 7 && newRow <= 9)))
+					count = addMove(square, newRow, newCol, moves, count);
+			}
+			break;
+
+		case ELEPHANT:
+			for (int dir = 0; dir < 4; dir++)
+			{
+				int newRow = row + 2 * DIAGONAL_DROW[dir];
+				int newCol = col + 2 * DIAGONAL_DCOL[dir];
+				if (newCol < 0 || newCol > 8
+						|| (colour == Piece.BLACK && (newRow < 0 || newRow > 4))
+						|| (colour == Piece.RED && (newRow < 5 || newRow > 9)))
+					continue;
+
+				// The elephant's eye must be empty
+				if (squares[toSquare(row + DIAGONAL_DROW[dir], col
+						+ DIAGONAL_DCOL[dir])] == EMPTY)
+					count = addMove(square, newRow, newCol, moves, count);
+			}
+			break;
+
+		case HORSE:
+			for (int dir = 0; dir < 8; dir++)
+			{
+				int newRow = row + Horse.DROW[dir];
+				int newCol = col + Horse.DCOL[dir];
+				if (newRow < 0 || newRow > 9 || newCol < 0 || newCol > 8)
+					continue;
+
+				// The horse's leg must be empty
+				if (squares[toSquare(row + Horse.DROW_BLOCK[dir], col
+						+ Horse.DCOL_BLOCK[dir])] == EMPTY)
+					count = addMove(square, newRow, newCol, moves, count);
+			}
+			break;
+
+		case CHARIOT:
+			for (int dir = 0; dir < 4; dir++)
+			{
+				int newRow = row + ORTHOGONAL_DROW[dir];
+				int newCol = col + ORTHOGONAL_DCOL[dir];
+
+				// Keep going until a piece or the edge is reached
+				while (newRow >= 0 && newRow <= 9 && newCol >= 0 && newCol <= 8
+						&& squares[toSquare(newRow, newCol)] == EMPTY)
+				{
+					count = addMove(square, newRow, newCol, moves, count);
+					newRow += ORTHOGONAL_DROW[dir];
+					newCol += ORTHOGONAL_DCOL[dir];
+				}
+				if (newRow >= 0 && newRow <= 9 && newCol >= 0 && newCol <= 8)
+					count = addMove(square, newRow, newCol, moves, count);
+			}
+			break;
+
+		case CANNON:
+			for (int dir = 0; dir < 4; dir++)
+			{
+				int newRow = row + ORTHOGONAL_DROW[dir];
+				int newCol = col + ORTHOGONAL_DCOL[dir];
+
+				// Slide like a chariot without capturing
+				while (newRow >= 0 && newRow <= 9 && newCol >= 0 && newCol <= 8
+						&& squares[toSquare(newRow, newCol)] == EMPTY)
+				{
+					count = addMove(square, newRow, newCol, moves, count);
+					newRow += ORTHOGONAL_DROW[dir];
+					newCol += ORTHOGONAL_DCOL[dir];
+				}
+
+				// Jump over the screen and capture the next piece
+				newRow += ORTHOGONAL_DROW[dir];
+				newCol += ORTHOGONAL_DCOL[dir];
+				while (newRow >= 0 && newRow <= 9 && newCol >= 0 && newCol <= 8
+						&& squares[toSquare(newRow, newCol)] == EMPTY)
+				{
+					newRow += ORTHOGONAL_DROW[dir];
+					newCol += ORTHOGONAL_DCOL[dir];
+				}
+				if (newRow >= 0 && newRow <= 9 && newCol >= 0 && newCol <= 8)
+					count = addMove(square, newRow, newCol, moves, count);
+			}
+			break;
+
+		case SOLDIER:
+			int forward = colour == Piece.BLACK ? row + 1 : row - 1;
+			if (forward >= 0 && forward <= 9)
+				count = addMove(square, forward, col, moves, count);
+
+			// Sideways moves once the soldier has crossed the river
+			if ((colour == Piece.BLACK && row >= 5)
+					|| (colour == Piece.RED && row <= 4))
+			{
+				if (col > 0)
+					count = addMove(square, row, col - 1, moves, count);
+				if (col < 8)
+					count = addMove(square, row, col + 1, moves, count);
+			}
+			break;
+		}
+		return count;
+	}
+
+	/**
+	 * Adds the move from the given square to the given row and column if the
+	 * destination is empty or holds an enemy piece.
+	 * @param from the square the piece is moving from
+	 * @param row the row to move to
+	 * @param col the column to move to
+	 * @param moves the array to put the packed moves in
+	 * @param count the number of moves already in the array
+	 * @return the new number of moves in the array
+	 */
+	private int addMove(int from, int row, int col, int[] moves, int count)
+	{
+		int to = toSquare(row, col);
+		int moved = squares[from];
+		int captured = squares[to];
+		if (captured != EMPTY && colour(captured) == colour(moved))
+			return count;
+
+		moves[count] = move(from, to, moved, captured);
+		return count + 1;
+	}
+
+	/**
+	 * Checks if the general of the given side is under check. The facing
+	 * generals rule counts as a check. Looks outward from the general's square
+	 * for attackers instead of generating the other side's moves, so nothing
+	 * is allocated.
+	 * @param side the colour of the general
+	 * @return true if the general is under check, false if not
+	 */
+	public boolean isChecked(int side)
+	{
+		int generalSquare = pieceSquares[side * 16];
+		if (generalSquare == NO_SQUARE)
+			return true;
+
+		int enemy = side ^ 1;
+		int row = row(generalSquare);
+		int col = column(generalSquare);
+
+		// Chariots and the facing general are the first piece along a line,
+		// cannons are the second
+		for (int dir = 0; dir < 4; dir++)
+		{
+			int newRow = row + ORTHOGONAL_DROW[dir];
+			int newCol = col + ORTHOGONAL_DCOL[dir];
+			int screens = 0;
+			while (newRow >= 0 && newRow <= 9 && newCol >= 0 && newCol <= 8)
+			{
+				int code = squares[toSquare(newRow, newCol)];
+				if (code != EMPTY)
+				{
+					if (colour(code) == enemy)
+					{
+						int type = type(code);
+						if (screens == 0
+								&& (type == CHARIOT || (type == GENERAL
+										&& ORTHOGONAL_DCOL[dir] == 0)))
+							return true;
+						if (screens == 1 && type == CANNON)
+							return true;
+					}
+					if (++screens == 2)
+						break;
+				}
+				newRow += ORTHOGONAL_DROW[dir];
+				newCol += ORTHOGONAL_DCOL[dir];
+			}
+		}
+
+		// Horses jumping onto the general with their legs unblocked
+		int enemyHorse = codeOf(HORSE, enemy);
+		for (int dir = 0; dir < 8; dir++)
+		{
+			int horseRow = row - Horse.DROW[dir];
+			int horseCol = col - Horse.DCOL[dir];
+			if (horseRow >= 0 && horseRow <= 9 && horseCol >= 0
+					&& horseCol <= 8
+					&& squares[toSquare(horseRow, horseCol)] == enemyHorse
+					&& squares[toSquare(horseRow + Horse.DROW_BLOCK[dir],
+							horseCol + Horse.DCOL_BLOCK[dir])] == EMPTY)
+				return true;
+		}
+
+		// Soldiers in front of the general or beside it once they crossed the
+		// river
+		int enemySoldier = codeOf(SOLDIER, enemy);
+		int forward = side == Piece.BLACK ? row + 1 : row - 1;
+		if (forward >= 0 && forward <= 9
+				&& squares[toSquare(forward, col)] == enemySoldier)
+			return true;
+		if ((enemy == Piece.BLACK && row >= 5)
+				|| (enemy == Piece.RED && row <= 4))
+			if ((col > 0 && squares[generalSquare - 1] == enemySoldier)
+					|| (col < 8 && squares[generalSquare + 1] == enemySoldier))
+				return true;
+
+		return false;
+	}
+
+	/**
+	 * Works out how much material a capture wins if both sides keep
+	 * recapturing on the same square with their least valuable piece and
+	 * either side can stop whenever it likes (static exchange evaluation).
+	 * The attackers are found again after every capture, so a cannon screen
+	 * or a horse leg that a capture opens or closes counts. A general can
+	 * only recapture on a square that the other side no longer attacks, and
+	 * no piece can leave the two generals facing each other. Other pins are
+	 * not noticed. No moves are made: the mailbox is changed while working it
+	 * out and is put back from the piece list at the end.
+	 * @param move the packed capture
+	 * @return the material won by the side making the capture (negative if it
+	 *         loses material)
+	 */
+	public int see(int move)
+	{
+		int target = to(move);
+		int from = from(move);
+		int code = moved(move);
+		int side = colour(code);
+		int redGeneral = pieceSquares[Piece.RED * 16];
+		int blackGeneral = pieceSquares[Piece.BLACK * 16];
+		int[] gains = exchangeGains;
+		gains[0] = pieceValues[type(captured(move))];
+		int depth = 0;
+		while (true)
+		{
+			// The piece on the from square captures on the target square
+			squares[from] = EMPTY;
+			squares[target] = (byte) code;
+			if (type(code) == GENERAL && side == Piece.RED)
+				redGeneral = target;
+			else if (type(code) == GENERAL)
+				blackGeneral = target;
+
+			// The other side can recapture with its least valuable attacker
+			side ^= 1;
+			from = leastValuableAttacker(target, side, redGeneral,
+					blackGeneral);
+			if (from == NO_SQUARE || depth == gains.length - 1)
+				break;
+			depth++;
+			gains[depth] = pieceValues[type(code)] - gains[depth - 1];
+			code = squares[from];
+		}
+
+		// Put the mailbox back
+		for (int index = 0; index < pieceSquares.length; index++)
+			if (pieceSquares[index] != NO_SQUARE)
+				squares[pieceSquares[index]] = pieceCodes[index];
+
+		// Each side either makes its recapture or stops before it, whichever
+		// is better for it
+		for (; depth > 0; depth--)
+			gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+		return gains[0];
+	}
+
+	/**
+	 * Finds the least valuable piece of the given side that can legally
+	 * capture on the target square in the middle of a static exchange. Looks
+	 * outward from the target square like isChecked, and pieces that already
+	 * captured are no longer on their squares.
+	 * @param target the square of the exchange
+	 * @param side the colour of the side to capture
+	 * @param redGeneral the current square of the red general
+	 * @param blackGeneral the current square of the black general
+	 * @return the square of the attacker or NO_SQUARE if there is none
+	 */
+	private int leastValuableAttacker(int target, int side, int redGeneral,
+			int blackGeneral)
+	{
+		int best = NO_SQUARE;
+		int row = row(target);
+		int col = column(target);
+
+		// Soldiers from behind the square or beside it once across the river
+		int soldier = codeOf(SOLDIER, side);
+		int behind = side == Piece.BLACK ? row - 1 : row + 1;
+		if (behind >= 0 && behind <= 9
+				&& squares[toSquare(behind, col)] == soldier)
+			best = pickAttacker(toSquare(behind, col), best, target,
+					redGeneral, blackGeneral);
+		if ((side == Piece.BLACK && row >= 5) || (side == Piece.RED && row <= 4))
+		{
+			if (col > 0 && squares[target - 1] == soldier)
+				best = pickAttacker(target - 1, best, target, redGeneral,
+						blackGeneral);
+			if (col < 8 && squares[target + 1] == soldier)
+				best = pickAttacker(target + 1, best, target, redGeneral,
+						blackGeneral);
+		}
+
+		// Advisors and elephants on the diagonals (attacks checks that they
+		// stay on their own side and that the elephant's eye is empty)
+		int advisor = codeOf(ADVISOR, side);
+		int elephant = codeOf(ELEPHANT, side);
+		for (int dir = 0; dir < 4; dir++)
+			for (int distance = 1; distance <= 2; distance++)
+			{
+				int newRow = row + distance * DIAGONAL_DROW[dir];
+				int newCol = col + distance * DIAGONAL_DCOL[dir];
+				if (newRow < 0 || newRow > 9 || newCol < 0 || newCol > 8)
+					break;
+				int square = toSquare(newRow, newCol);
+				if (squares[square] == (distance == 1 ? advisor : elephant)
+						&& attacks(square, target))
+					best = pickAttacker(square, best, target, redGeneral,
+							blackGeneral);
+			}
+
+		// Horses jumping onto the square with their legs unblocked
+		int horse = codeOf(HORSE, side);
+		for (int dir = 0; dir < 8; dir++)
+		{
+			int horseRow = row - Horse.DROW[dir];
+			int horseCol = col - Horse.DCOL[dir];
+			if (horseRow >= 0 && horseRow <= 9 && horseCol >= 0
+					&& horseCol <= 8
+					&& squares[toSquare(horseRow, horseCol)] == horse
+					&& squares[toSquare(horseRow + Horse.DROW_BLOCK[dir],
+							horseCol + Horse.DCOL_BLOCK[dir])] == EMPTY)
+				best = pickAttacker(toSquare(horseRow, horseCol), best,
+						target, redGeneral, blackGeneral);
+		}
+
+		// Chariots and the general next to the square are the first piece
+		// along a line, cannons are the second
+		for (int dir = 0; dir < 4; dir++)
+		{
+			int[] ray = RAYS[target][dir];
+			int screens = 0;
+			for (int square : ray)
+			{
+				int code = squares[square];
+				if (code == EMPTY)
+					continue;
+				if (colour(code) == side
+						&& (screens == 0 ? type(code) == CHARIOT
+								|| (type(code) == GENERAL && square == ray[0]
+								&& attacks(square, target))
+								: type(code) == CANNON))
+					best = pickAttacker(square, best, target, redGeneral,
+							blackGeneral);
+				if (++screens == 2)
+					break;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Chooses between the best attacker found so far and another attacker
+	 * of the same side in a static exchange. The other attacker is only
+	 * taken if it is worth less and its capture is legal: it cannot leave the
+	 * generals facing each other, and the general cannot capture on a square
+	 * that is still defended.
+	 * @param square the square of the other attacker
+	 * @param best the square of the best attacker so far or NO_SQUARE
+	 * @param target the square of the exchange
+	 * @param redGeneral the current square of the red general
+	 * @param blackGeneral the current square of the black general
+	 * @return the square of the attacker to use
+	 */
+	private int pickAttacker(int square, int best, int target, int redGeneral,
+			int blackGeneral)
+	{
+		int code = squares[square];
+		if (best != NO_SQUARE
+				&& pieceValues[type(code)] >= pieceValues[type(squares[best])])
+			return best;
+
+		int targetCode = squares[target];
+		squares[square] = EMPTY;
+		squares[target] = (byte) code;
+		boolean legal;
+		if (type(code) == GENERAL)
+			legal = !isAttacked(target, colour(code) ^ 1)
+					&& !(colour(code) == Piece.RED ? generalsFacing(target,
+							blackGeneral) : generalsFacing(redGeneral, target));
+		else
+			legal = !generalsFacing(redGeneral, blackGeneral);
+		squares[square] = (byte) code;
+		squares[target] = (byte) targetCode;
+		return legal ? square : best;
+	}
+
+	/**
+	 * Checks if any piece of the given side attacks the target square in the
+	 * middle of a static exchange.
+	 * @param target the square
+	 * @param side the colour of the attacking side
+	 * @return true if the square is attacked
+	 */
+	private boolean isAttacked(int target, int side)
+	{
+		for (int index = side * 16; index < side * 16 + 16; index++)
+		{
+			int square = pieceSquares[index];
+			if (square != NO_SQUARE && square != target
+					&& squares[square] == pieceCodes[index]
+					&& attacks(square, target))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the piece on the given square could capture on the target
+	 * square (ignoring whether its own general would be left in check).
+	 * @param from the square of the piece
+	 * @param target the square to capture on
+	 * @return true if the piece attacks the target square
+	 */
+	private boolean attacks(int from, int target)
+	{
+		int code = squares[from];
+		int colour = colour(code);
+		int rowChange = row(target) - row(from);
+		int colChange = column(target) - column(from);
+		int rowDistance = Math.abs(rowChange);
+		int colDistance = Math.abs(colChange);
+		int targetRow = row(target);
+		int targetCol = column(target);
+		boolean inPalace = targetCol >= 3 && targetCol <= 5
+				&& (colour == Piece.BLACK ? targetRow <= 2 : targetRow >= 7);
+
+		switch (type(code))
+		{
+		case GENERAL:
+			return inPalace && rowDistance + colDistance == 1;
+		case ADVISOR:
+			return inPalace && rowDistance == 1 && colDistance == 1;
+		case ELEPHANT:
+			return rowDistance == 2 && colDistance == 2
+					&& (colour == Piece.BLACK ? targetRow <= 4 : targetRow >= 5)
+					&& squares[(from + target) / 2] == EMPTY;
+		case HORSE:
+			// The leg is the square next to the horse in the long direction
+			if (rowDistance == 2 && colDistance == 1)
+				return squares[from + rowChange / 2 * GamePanel.NO_OF_COLS]
+						== EMPTY;
+			if (rowDistance == 1 && colDistance == 2)
+				return squares[from + colChange / 2] == EMPTY;
+			return false;
+		case CHARIOT:
+			return (rowChange == 0 || colChange == 0)
+					&& piecesBetween(from, target) == 0;
+		case CANNON:
+			return (rowChange == 0 || colChange == 0)
+					&& piecesBetween(from, target) == 1;
+		default:
+			// Soldiers move forward and also sideways once across the river
+			int forward = colour == Piece.BLACK ? +1 : -1;
+			boolean crossed = colour == Piece.BLACK ? targetRow >= 5
+					: targetRow <= 4;
+			return (colChange == 0 && rowChange == forward)
+					|| (rowChange == 0 && colDistance == 1 && crossed);
+		}
+	}
+
+	/**
+	 * Counts the pieces between two different squares on the same row or
+	 * column.
+	 * @param from one square
+	 * @param to the other square
+	 * @return the number of pieces strictly between them
+	 */
+	private int piecesBetween(int from, int to)
+	{
+		int step = row(from) == row(to) ? 1 : GamePanel.NO_OF_COLS;
+		if (to < from)
+			step = -step;
+		int count = 0;
+		for (int square = from + step; square != to; square += step)
+			if (squares[square] != EMPTY)
+				count++;
+		return count;
+	}
+
+	/**
+	 * Checks if the two generals face each other on an open column.
+	 * @param redGeneral the square of the red general
+	 * @param blackGeneral the square of the black general
+	 * @return true if the generals are facing each other
+	 */
+	private boolean generalsFacing(int redGeneral, int blackGeneral)
+	{
+		return redGeneral != NO_SQUARE && blackGeneral != NO_SQUARE
+				&& column(redGeneral) == column(blackGeneral)
+				&& piecesBetween(redGeneral, blackGeneral) == 0;
+	}
+
+	/**
+	 * Determines a value used to sort moves, the value of the captured piece
+	 * plus the change in the moved piece's position value.
+	 * @param move the packed move
+	 * @return the move's sorting value
+	 */
+	public int getMoveValue(int move)
+	{
+		int moved = moved(move);
+		int value = positionValue(moved, to(move))
+				- positionValue(moved, from(move));
+		if (captured(move) != EMPTY)
+			value += pieceValues[type(captured(move))];
+		return value;
+	}
+
+	/**
+	 * Calculates the value of this position with an evaluation function from
+	 * the point of view of the given colour. Each piece adds its piece value,
+	 * position value and mobility value, and pieces in the centre of the
+	 * board add a tenth of their piece value. Everything except the mobility
+	 * values is kept up to date as moves are made.
+	 * @param colour the colour to evaluate for
+	 * @return the value of this position, positive if it is good for colour
+	 */
+	public int evaluate(int colour)
+	{
+		return staticValues[colour] - staticValues[colour ^ 1]
+				+ getMobilityValue(colour) - getMobilityValue(colour ^ 1);
+	}
+
+	/**
+	 * Calculates the total mobility value of the chariots, horses and cannons
+	 * of the given side. Each piece is worth a quarter of its piece value
+	 * times the fraction of its maximum number of moves that it has. The moves
+	 * are pseudo-legal (pins and checks are ignored) and are counted straight
+	 * from the ray and horse jump tables without generating any moves.
+	 * @param side the colour of the pieces
+	 * @return the mobility value of the side
+	 */
+	int getMobilityValue(int side)
+	{
+		int chariotMoves = 0, horseMoves = 0, cannonMoves = 0;
+		for (int index = side * 16 + 1; index < side * 16 + 16; index++)
+		{
+			int square = pieceSquares[index];
+			if (square == NO_SQUARE)
+				continue;
+
+			int type = type(pieceCodes[index]);
+			if (type == CHARIOT)
+				chariotMoves += countChariotMoves(square, side);
+			else if (type == CANNON)
+				cannonMoves += countCannonMoves(square, side);
+			else if (type == HORSE)
+				horseMoves += countHorseMoves(square, side);
+		}
+
+		// Multiply first so that partial mobility is not rounded to 0
+		return chariotMoves * pieceValues[CHARIOT]
+				/ (MAX_MOVES_BY_TYPE[CHARIOT] * 4) + horseMoves
+				* pieceValues[HORSE] / (MAX_MOVES_BY_TYPE[HORSE] * 4)
+				+ cannonMoves * pieceValues[CANNON]
+				/ (MAX_MOVES_BY_TYPE[CANNON] * 4);
+	}
+
+	/**
+	 * Counts the pseudo-legal moves of a chariot.
+	 * @param square the square of the chariot
+	 * @param side the colour of the chariot
+	 * @return the number of empty squares it can slide to plus the number of
+	 *         enemy pieces it can capture
+	 */
+	private int countChariotMoves(int square, int side)
+	{
+		int count = 0;
+		for (int[] ray : RAYS[square])
+			for (int target : ray)
+			{
+				int code = squares[target];
+				if (code == EMPTY)
+					count++;
+				else
+				{
+					if (colour(code) != side)
+						count++;
+					break;
+				}
+			}
+		return count;
+	}
+
+	/**
+	 * Counts the pseudo-legal moves of a cannon.
+	 * @param square the square of the cannon
+	 * @param side the colour of the cannon
+	 * @return the number of empty squares it can slide to plus the number of
+	 *         enemy pieces it can capture by jumping over a screen
+	 */
+	private int countCannonMoves(int square, int side)
+	{
+		int count = 0;
+		for (int[] ray : RAYS[square])
+		{
+			boolean screen = false;
+			for (int target : ray)
+			{
+				int code = squares[target];
+				if (!screen)
+				{
+					if (code == EMPTY)
+						count++;
+					else
+						screen = true;
+				}
+				else if (code != EMPTY)
+				{
+					if (colour(code) != side)
+						count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the pseudo-legal moves of a horse.
+	 * @param square the square of the horse
+	 * @param side the colour of the horse
+	 * @return the number of unblocked jumps that do not land on a piece of
+	 *         the same colour
+	 */
+	private int countHorseMoves(int square, int side)
+	{
+		int[] jumps = HORSE_JUMPS[square];
+		int[] legs = HORSE_LEGS[square];
+		int count = 0;
+		for (int jump = 0; jump < jumps.length; jump++)
+		{
+			int code = squares[jumps[jump]];
+			if (squares[legs[jump]] == EMPTY
+					&& (code == EMPTY || colour(code) != side))
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Calculates the total flexibility value of the given side the way the
+	 * Pieces used to: the legal moves of each chariot, horse and cannon are
+	 * generated and the ratio to its maximum number of moves is rounded down
+	 * (so it is almost always 0). Only kept for MobilityBenchmark to compare
+	 * against.
+	 * @param side the colour of the pieces
+	 * @return the flexibility value of the side
+	 */
+	int getFlexibilityValue(int side)
+	{
+		int value = 0;
+		for (int index = side * 16 + 1; index < side * 16 + 16; index++)
+		{
+			int type = type(pieceCodes[index]);
+			if (pieceSquares[index] == NO_SQUARE
+					|| (type != CHARIOT && type != HORSE && type != CANNON))
+				continue;
+
+			int count = generatePieceMoves(pieceSquares[index], pieceMoves, 0);
+			count = removeIllegalMoves(pieceMoves, 0, count);
+			value += count / MAX_MOVES_BY_TYPE[type] * pieceValues[type] / 4;
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the square with the given row and column.
+	 * @param row the row index
+	 * @param col the column index
+	 * @return the square index
+	 */
+	public static int toSquare(int row, int col)
+	{
+		return row * GamePanel.NO_OF_COLS + col;
+	}
+
+	/**
+	 * Gets the square mirrored across the river.
+	 * @param square the square index
+	 * @return the mirrored square
+	 */
+	public static int mirror(int square)
+	{
+		return toSquare(9 - row(square), column(square));
+	}
+
+	/**
+	 * Flattens a 10 x 9 position value table into a square indexed array.
+	 * @param table the 2-D table of values
+	 * @return the values indexed by square
+	 */
+	private static int[] flatten(int[][] table)
+	{
+		int[] values = new int[NO_OF_SQUARES];
+		for (int row = 0; row < GamePanel.NO_OF_ROWS; row++)
+			for (int col = 0; col < GamePanel.NO_OF_COLS; col++)
+				values[toSquare(row, col)] = table[row][col];
+		return values;
+	}
+}
@@ -0,0 +1,22 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for the GamePanel's repaint, which paints the
+ * board and the border panels right away on the calling thread.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+@Name("ChineseChess.Repaint")
+@Label("Panel Repaint")
+@Category({ "Chinese Chess", "Rendering" })
+@Description("Painting the game panel and its border panels immediately")
+public class RepaintEvent extends jdk.jfr.Event
+{
+	@Label("Panels")
+	@Description("The number of panels painted")
+	public int panels;
+}
@@ -0,0 +1,92 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * Measures the size of the search tree: the number of nodes and the time
+ * taken by a fixed depth search of each benchmark position, on one thread
+ * with an empty transposition table. Each line of output is the position, the
+ * depth, the nodes, the milliseconds and the percentage of cutoffs made by
+ * the first move, so the output of one version can be saved and given back to
+ * a later version as the baseline to compare against. Run with: java
+ * SearchBenchmark [maximum depth] [baseline file]
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class SearchBenchmark
+{
+	// The positions to search by name
+	private static final String[][] POSITIONS = {
+			{ "opening", Position.START_FEN },
+			{ "middlegame1", "r1bakab1r/9/1cn3nc1/p1p1p1p1p/9/2P6/"
+					+ "P3P1P1P/1C2C1N2/9/RNBAKAB1R b" },
+			{ "middlegame2", "2bakab2/9/2n1c1n2/p3p1p1p/2p6/6P2/"
+					+ "P1P1P3P/2N1C1N2/4A4/2BAK1B2 w" },
+			{ "middlegame3", "r2akab2/9/1cn1b1n2/p1p1p1p1p/9/2P3P2/"
+					+ "P3P3P/N1C1B1N2/9/R2AKAB2 w" },
+			{ "endgame1", "3ak4/4a4/4b4/9/9/9/9/4B4/4A4/2R1KA3 w" },
+			{ "endgame2", "4k4/9/3a5/4p4/9/9/9/4B4/4A4/3NK4 w" },
+			{ "endgame3", "3k5/4a4/5a3/9/2b6/9/9/3C5/4p4/4K4 w" } };
+
+	/**
+	 * Runs the benchmark.
+	 * @param args the maximum depth and the baseline file
+	 * @throws FileNotFoundException if the baseline file cannot be read
+	 */
+	public static void main(String[] args) throws FileNotFoundException
+	{
+		int maxDepth = 6;
+		if (args.length > 0)
+			maxDepth = Integer.parseInt(args[0]);
+
+		// Nodes of the baseline by position and depth
+		Map<String, Long> baseline = new HashMap<String, Long>();
+		if (args.length > 1)
+		{
+			Scanner in = new Scanner(new File(args[1]));
+			while (in.hasNextLine())
+			{
+				// Skip the totals line
+				String[] fields = in.nextLine().trim().split("\\s+");
+				if (fields.length >= 4 && !fields[0].equals("Total"))
+					baseline.put(fields[0] + " " + fields[1],
+							Long.parseLong(fields[2]));
+			}
+			in.close();
+		}
+
+		long totalNodes = 0;
+		long totalBaseline = 0;
+		for (String[] position : POSITIONS)
+			for (int depth = 1; depth <= maxDepth; depth++)
+			{
+				Position root = new Position(position[1]);
+				Computer computer = new Computer(root.getSideToMove(), depth);
+				long start = System.nanoTime();
+				computer.bestMove(root, false);
+				long time = (System.nanoTime() - start) / 1000000;
+				long nodes = computer.getNodes();
+				double cutoffRate = 100 * computer.getFirstMoveCutoffRate();
+
+				String key = position[0] + " " + depth;
+				if (baseline.containsKey(key))
+				{
+					totalNodes += nodes;
+					totalBaseline += baseline.get(key);
+					System.out.printf("%s %d %d %.1f%% (%.2fx baseline)%n",
+							key, nodes, time, cutoffRate, (double) nodes
+									/ baseline.get(key));
+				}
+				else
+					System.out.printf("%s %d %d %.1f%%%n", key, nodes, time,
+							cutoffRate);
+			}
+
+		if (totalBaseline > 0)
+			System.out.printf("Total nodes: %d (%.2fx baseline)%n",
+					totalNodes, (double) totalNodes / totalBaseline);
+	}
+}
@@ -0,0 +1,62 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+
+/**
+ * A Java Flight Recorder event for each move the Computer finds, lasting
+ * from the start to the end of the search, with its SearchStatistics. It
+ * costs nothing unless a recording has it enabled, so slow moves can be
+ * looked into in a real game without a profiler.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+@Name("ChineseChess.Search")
+@Label("Search")
+@Category({ "Chinese Chess", "AI" })
+@Description("The Computer finding a move")
+public class SearchEvent extends jdk.jfr.Event
+{
+	@Label("Source")
+	@Description("Where the move came from: search, book or tablebase")
+	public String source;
+
+	@Label("Best Move")
+	public String bestMove;
+
+	@Label("Threads")
+	public int threads;
+
+	@Label("Depth")
+	@Description("The last depth completed by the main thread")
+	public int depth;
+
+	@Label("Nodes")
+	public long nodes;
+
+	@Label("Quiescence Nodes")
+	public long quiescenceNodes;
+
+	@Label("Nodes per Second")
+	@Frequency
+	public long nodesPerSecond;
+
+	@Label("Beta Cutoffs")
+	public long cutoffs;
+
+	@Label("First Move Cutoff Rate")
+	@Percentage
+	public double firstMoveCutoffRate;
+
+	@Label("Table Probes")
+	public long tableProbes;
+
+	@Label("Table Hits")
+	public long tableHits;
+
+	@Label("Average Branching Factor")
+	public double averageBranchingFactor;
+}
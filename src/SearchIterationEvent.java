@@ -0,0 +1,34 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for each iteration of the main thread of a
+ * search, committed once the search is done, with the nodes and time the
+ * iteration took and its effective branching factor.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+@Name("ChineseChess.SearchIteration")
+@Label("Search Iteration")
+@Category({ "Chinese Chess", "AI" })
+@Description("One iteration of the Computer's search")
+public class SearchIterationEvent extends jdk.jfr.Event
+{
+	@Label("Depth")
+	public int depth;
+
+	@Label("Nodes")
+	public long nodes;
+
+	@Label("Iteration Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long iterationTime;
+
+	@Label("Branching Factor")
+	@Description("The nodes of this iteration over those of the one before")
+	public double branchingFactor;
+}
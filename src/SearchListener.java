@@ -0,0 +1,22 @@
+/**
+ * Listens to the progress of the Computer's search. It is called on the
+ * search thread each time an iteration is completed, so a listener that
+ * updates the user interface must hand the update to the Event Dispatch
+ * Thread itself.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public interface SearchListener
+{
+	/**
+	 * Called after each completed iteration of the search.
+	 * @param depth the depth that was completed
+	 * @param bestMove the best packed move found so far
+	 * @param score the score of the best move for the side to move
+	 * @param principalVariation the packed moves of the principal variation
+	 * @param nodes the number of nodes searched so far
+	 */
+	void searchProgress(int depth, int bestMove, int score,
+			int[] principalVariation, long nodes);
+}
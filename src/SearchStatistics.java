@@ -0,0 +1,272 @@
+/**
+ * Keeps track of the work done by one of the Computer's searches: the nodes
+ * searched (in total and in the quiescence search), the nodes per second,
+ * the beta cutoffs and how many came from the first move, the transposition
+ * table probes and hits, and the nodes, time and effective branching factor
+ * of each iteration. Totals are over all of the search threads, while the
+ * iterations are those of the main thread. A move from the opening book or
+ * the tablebases has empty statistics.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class SearchStatistics
+{
+	// Where the move came from
+	public static final String SEARCH = "search";
+	public static final String BOOK = "book";
+	public static final String TABLEBASE = "tablebase";
+
+	private final String source;
+	private final int threads;
+	private final long time;
+	private long nodes;
+	private long quiescenceNodes;
+	private long cutoffs, firstMoveCutoffs;
+	private long tableProbes, tableHits;
+
+	// The nodes searched and the time taken in nanoseconds by the end of
+	// each iteration of the main thread (by depth, from 0)
+	private final long[] iterationNodes;
+	private final long[] iterationTimes;
+
+	/**
+	 * Constructs the empty statistics of a move that was not searched.
+	 * @param source where the move came from (BOOK or TABLEBASE)
+	 * @param time the time taken in nanoseconds
+	 */
+	SearchStatistics(String source, long time)
+	{
+		this.source = source;
+		this.time = time;
+		threads = 0;
+		iterationNodes = new long[1];
+		iterationTimes = new long[1];
+	}
+
+	/**
+	 * Constructs the statistics of a search.
+	 * @param main the main Searcher
+	 * @param helpers the helper Searchers (finished)
+	 * @param time the time taken in nanoseconds
+	 */
+	SearchStatistics(Searcher main, Searcher[] helpers, long time)
+	{
+		source = SEARCH;
+		threads = helpers.length + 1;
+		this.time = time;
+		add(main);
+		for (Searcher helper : helpers)
+			add(helper);
+
+		int completedDepth = main.getCompletedDepth();
+		iterationNodes = new long[completedDepth + 1];
+		iterationTimes = new long[completedDepth + 1];
+		for (int depth = 1; depth <= completedDepth; depth++)
+		{
+			iterationNodes[depth] = main.getIterationNodes(depth);
+			iterationTimes[depth] = main.getIterationTime(depth);
+		}
+	}
+
+	/**
+	 * Adds the counts of a Searcher to the totals.
+	 * @param searcher the Searcher
+	 */
+	private void add(Searcher searcher)
+	{
+		nodes += searcher.getNodes();
+		quiescenceNodes += searcher.getQuiescenceNodes();
+		cutoffs += searcher.getCutoffs();
+		firstMoveCutoffs += searcher.getFirstMoveCutoffs();
+		tableProbes += searcher.getTableProbes();
+		tableHits += searcher.getTableHits();
+	}
+
+	/**
+	 * Gets where the move came from.
+	 * @return SEARCH, BOOK or TABLEBASE
+	 */
+	public String getSource()
+	{
+		return source;
+	}
+
+	/**
+	 * Gets the number of threads that searched.
+	 * @return the number of threads (0 if the move was not searched)
+	 */
+	public int getThreads()
+	{
+		return threads;
+	}
+
+	/**
+	 * Gets the time the search took.
+	 * @return the time in nanoseconds
+	 */
+	public long getTime()
+	{
+		return time;
+	}
+
+	/**
+	 * Gets the number of nodes searched.
+	 * @return the number of nodes
+	 */
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	/**
+	 * Gets the number of nodes searched in the quiescence search.
+	 * @return the number of quiescence nodes
+	 */
+	public long getQuiescenceNodes()
+	{
+		return quiescenceNodes;
+	}
+
+	/**
+	 * Gets the number of nodes searched per second.
+	 * @return the nodes per second
+	 */
+	public long getNodesPerSecond()
+	{
+		if (time == 0)
+			return 0;
+		return (long) (nodes * 1e9 / time);
+	}
+
+	/**
+	 * Gets the number of beta cutoffs in the full width search.
+	 * @return the number of cutoffs
+	 */
+	public long getCutoffs()
+	{
+		return cutoffs;
+	}
+
+	/**
+	 * Gets the fraction of the beta cutoffs that came from the first move
+	 * searched, which shows how good the move ordering is.
+	 * @return the first move cutoff rate between 0 and 1
+	 */
+	public double getFirstMoveCutoffRate()
+	{
+		if (cutoffs == 0)
+			return 0;
+		return (double) firstMoveCutoffs / cutoffs;
+	}
+
+	/**
+	 * Gets the number of transposition table probes.
+	 * @return the number of probes
+	 */
+	public long getTableProbes()
+	{
+		return tableProbes;
+	}
+
+	/**
+	 * Gets the number of transposition table probes that found their
+	 * position.
+	 * @return the number of hits
+	 */
+	public long getTableHits()
+	{
+		return tableHits;
+	}
+
+	/**
+	 * Gets the fraction of transposition table probes that found their
+	 * position.
+	 * @return the hit rate between 0 and 1
+	 */
+	public double getTableHitRate()
+	{
+		if (tableProbes == 0)
+			return 0;
+		return (double) tableHits / tableProbes;
+	}
+
+	/**
+	 * Gets the depth of the last iteration completed by the main thread.
+	 * @return the completed depth (0 if the move was not searched)
+	 */
+	public int getCompletedDepth()
+	{
+		return iterationNodes.length - 1;
+	}
+
+	/**
+	 * Gets the number of nodes the main thread searched in an iteration.
+	 * @param depth the depth of the iteration (1 to the completed depth)
+	 * @return the number of nodes
+	 */
+	public long getIterationNodes(int depth)
+	{
+		return iterationNodes[depth] - iterationNodes[depth - 1];
+	}
+
+	/**
+	 * Gets the time an iteration took.
+	 * @param depth the depth of the iteration (1 to the completed depth)
+	 * @return the time in nanoseconds
+	 */
+	public long getIterationTime(int depth)
+	{
+		return iterationTimes[depth] - iterationTimes[depth - 1];
+	}
+
+	/**
+	 * Gets the effective branching factor of an iteration: how many times
+	 * more nodes it took than the iteration before it.
+	 * @param depth the depth of the iteration (2 to the completed depth)
+	 * @return the branching factor (0 if the iteration before took no nodes)
+	 */
+	public double getBranchingFactor(int depth)
+	{
+		long previous = getIterationNodes(depth - 1);
+		if (previous == 0)
+			return 0;
+		return (double) getIterationNodes(depth) / previous;
+	}
+
+	/**
+	 * Gets the average effective branching factor of the main thread's
+	 * search: the completed depth-th root of the nodes it searched.
+	 * @return the average branching factor (0 if the move was not searched)
+	 */
+	public double getAverageBranchingFactor()
+	{
+		int depth = getCompletedDepth();
+		if (depth == 0 || iterationNodes[depth] == 0)
+			return 0;
+		return Math.pow(iterationNodes[depth], 1.0 / depth);
+	}
+
+	/**
+	 * Describes the statistics with one line for the totals followed by one
+	 * line for each iteration.
+	 * @return the description
+	 */
+	public String toString()
+	{
+		StringBuilder text = new StringBuilder();
+		text.append(String.format("%s: %d nodes (%d quiescence) in %.1f ms, "
+				+ "%d nps, %d cutoffs (%.1f%% first move), table %d/%d hits "
+				+ "(%.1f%%), depth %d, average branching factor %.2f%n", source,
+				nodes, quiescenceNodes, time / 1e6, getNodesPerSecond(),
+				cutoffs, 100 * getFirstMoveCutoffRate(), tableHits,
+				tableProbes, 100 * getTableHitRate(), getCompletedDepth(),
+				getAverageBranchingFactor()));
+		for (int depth = 1; depth <= getCompletedDepth(); depth++)
+			text.append(String.format("  depth %2d: %10d nodes %9.1f ms  "
+					+ "branching factor %.2f%n", depth,
+					getIterationNodes(depth), getIterationTime(depth) / 1e6,
+					depth == 1 ? 0 : getBranchingFactor(depth)));
+		return text.toString();
+	}
+}
@@ -0,0 +1,1007 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps track of one thread's alpha beta search for the Computer. Each
+ * Searcher has its own Position, principal variation and clock while the
+ * transposition table and the abort flag are shared with the other Searchers
+ * so that several of them can search the same root at once (lazy SMP).
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class Searcher implements Runnable
+{
+	// Constants for the deepest search possible and how often the clock is
+	// checked (in nodes, must be one less than a power of two)
+	public static final int MAX_PLY = 64;
+	private static final int CLOCK_CHECK_MASK = 1023;
+
+	// Score bounds: a score beyond every possible score (too big for the
+	// transposition table), the score of a win in 0 plies (the plies to mate
+	// from the root are taken off, by the search and the tablebase alike),
+	// the least score of a mate and half the width of the aspiration window
+	// around the last iteration's score
+	private static final int INFINITY = 1 << 20;
+	public static final int MATE = 9000;
+	private static final int MATE_BOUND = MATE - MAX_PLY
+			- Tablebase.MAX_DISTANCE;
+	private static final int ASPIRATION_WINDOW = 50;
+
+	// Move ordering values of each stage of the move picker: the move from
+	// the last principal variation, the move from the transposition table,
+	// captures that do not lose material, killer moves, captures that lose
+	// material by how much they lose and then quiet moves by their history
+	// (scaled so that the static move value breaks ties)
+	private static final int PV_MOVE_VALUE = 1 << 30;
+	private static final int TABLE_MOVE_VALUE = 1 << 29;
+	private static final int CAPTURE_VALUE = 1 << 28;
+	private static final int KILLER_VALUE = 1 << 27;
+	private static final int LOSING_CAPTURE_VALUE = 3 << 25;
+	private static final int HISTORY_SCALE = 1 << 10;
+	private static final int HISTORY_LIMIT = 1 << 16;
+
+	// Null move pruning: how much shallower the search after passing is and
+	// the least depth left to try it at. Late move reductions: the least
+	// depth left to reduce at, how many moves are searched to the full depth
+	// first and after how many moves the reduction is doubled
+	private static final int NULL_MOVE_REDUCTION = 2;
+	private static final int NULL_MOVE_MIN_DEPTH = 3;
+	private static final int REDUCTION_MIN_DEPTH = 3;
+	private static final int FULL_DEPTH_MOVES = 3;
+	private static final int DOUBLE_REDUCTION_MOVES = 12;
+
+	// The position being searched, the shared transposition table and abort
+	// flag and the endgame tablebase (if any)
+	private final Position position;
+	private final TranspositionTable table;
+	private final AtomicBoolean abort;
+	private Tablebase tablebase;
+
+	// The depths to search, the clock, the nodes searched and whether the
+	// search ran out of time
+	private int firstDepth, maxDepth;
+	private boolean checkEvasions;
+	private boolean nullMovePruning, lateMoveReductions;
+	private long deadline;
+	private long nodeLimit;
+	private long nodes;
+	private boolean stopped;
+	private int completedDepth;
+	private SearchListener listener;
+
+	// The score of the best root move of the last search of the root
+	private int rootScore;
+
+	// The moves from the root to the current node, the principal variation
+	// found below each generation and the principal variation of the last
+	// completed iteration
+	private int ply;
+	private final int[] line;
+	private final int[][] pvTable;
+	private final int[] pvLength;
+	private final int[] previousPv;
+	private int previousPvLength;
+
+	// Preallocated move lists and move values for every generation so that
+	// the search does not create any garbage
+	private final int[][] moveStack;
+	private final int[][] valueStack;
+
+	// Two quiet moves per generation that last caused a cutoff (killer
+	// moves), and how well each quiet move did by side, from and to square
+	private final int[][] killers;
+	private final int[][][] history;
+
+	// Number of cutoffs and how many of them came from the first move, the
+	// nodes in the quiescence search and the transposition table probes and
+	// hits of this Searcher
+	private long cutoffs, firstMoveCutoffs;
+	private long quiescenceNodes;
+	private long tableProbes, tableHits;
+
+	// The nodes searched and the time taken in nanoseconds by the end of
+	// each completed iteration (by depth)
+	private final long[] iterationNodes;
+	private final long[] iterationTimes;
+
+	/**
+	 * Constructs a new Searcher for the given position.
+	 * @param position the position to search (owned by this Searcher)
+	 * @param table the shared transposition table
+	 * @param abort the shared flag that stops all of the Searchers
+	 */
+	public Searcher(Position position, TranspositionTable table,
+			AtomicBoolean abort)
+	{
+		this.position = position;
+		this.table = table;
+		this.abort = abort;
+
+		line = new int[MAX_PLY];
+		pvTable = new int[MAX_PLY][MAX_PLY];
+		pvLength = new int[MAX_PLY];
+		previousPv = new int[MAX_PLY];
+		moveStack = new int[MAX_PLY][Position.MAX_MOVES];
+		valueStack = new int[MAX_PLY][Position.MAX_MOVES];
+		killers = new int[MAX_PLY][2];
+		history = new int[2][Position.NO_OF_SQUARES][Position.NO_OF_SQUARES];
+		iterationNodes = new long[MAX_PLY + 1];
+		iterationTimes = new long[MAX_PLY + 1];
+	}
+
+	/**
+	 * Sets the depths to search.
+	 * @param firstDepth the depth of the first iteration
+	 * @param maxDepth the depth of the last iteration
+	 */
+	public void setDepths(int firstDepth, int maxDepth)
+	{
+		this.firstDepth = firstDepth;
+		this.maxDepth = Math.min(maxDepth, MAX_PLY - 1);
+	}
+
+	/**
+	 * Sets the number of nodes to stop after (checked every so often, and
+	 * only once the first iteration is completed).
+	 * @param nodeLimit the number of nodes (0 for no node limit)
+	 */
+	public void setNodeLimit(long nodeLimit)
+	{
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * Sets whether the quiescence search tries every move when the side to
+	 * move is in check instead of only captures.
+	 * @param checkEvasions true to search check evasions
+	 */
+	public void setCheckEvasions(boolean checkEvasions)
+	{
+		this.checkEvasions = checkEvasions;
+	}
+
+	/**
+	 * Sets whether the search lets the side to move pass to prove that its
+	 * position is so good that a shallower search would fail high anyway
+	 * (null move pruning).
+	 * @param nullMovePruning true to prune with null moves
+	 */
+	public void setNullMovePruning(boolean nullMovePruning)
+	{
+		this.nullMovePruning = nullMovePruning;
+	}
+
+	/**
+	 * Sets whether quiet moves ordered late are searched shallower first and
+	 * only searched to the full depth if they beat alpha (late move
+	 * reductions).
+	 * @param lateMoveReductions true to reduce late moves
+	 */
+	public void setLateMoveReductions(boolean lateMoveReductions)
+	{
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
+	/**
+	 * Sets the endgame tablebase to look up positions with few pieces in
+	 * instead of searching them.
+	 * @param tablebase the tablebase (null for none)
+	 */
+	public void setTablebase(Tablebase tablebase)
+	{
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * Sets the listener to tell about each completed iteration.
+	 * @param listener the listener (null for none)
+	 */
+	public void setSearchListener(SearchListener listener)
+	{
+		this.listener = listener;
+	}
+
+	/**
+	 * Searches without a time limit until the maximum depth is reached or the
+	 * abort flag is set (used by the helper threads).
+	 */
+	public void run()
+	{
+		search(0);
+	}
+
+	/**
+	 * Searches to a depth of 1, 2, 3... until the maximum depth is reached or
+	 * the time runs out. After the first iteration, each iteration starts
+	 * with a narrow aspiration window around the last score. If the score
+	 * falls outside of the window, the side that failed is widened more and
+	 * more until the score fits.
+	 * @param deadline the time to stop at in milliseconds (0 for no deadline)
+	 * @return the best move of the last completed iteration (0 if there are
+	 *         no moves)
+	 */
+	public int search(long deadline)
+	{
+		this.deadline = deadline;
+		long start = System.nanoTime();
+		nodes = 0;
+		stopped = false;
+		ply = 0;
+		previousPvLength = 0;
+		completedDepth = 0;
+		cutoffs = firstMoveCutoffs = 0;
+		quiescenceNodes = tableProbes = tableHits = 0;
+		for (int[] plyKillers : killers)
+			Arrays.fill(plyKillers, 0);
+		for (int[][] sideHistory : history)
+			for (int[] fromHistory : sideHistory)
+				Arrays.fill(fromHistory, 0);
+
+		// Put the root moves in order once, after that the best move of each
+		// iteration is moved to the front
+		int[] moves = moveStack[0];
+		int noOfMoves = generateMoves(0);
+		for (int index = 0; index < noOfMoves; index++)
+			nextMove(index, noOfMoves);
+		if (noOfMoves == 0)
+			return 0;
+		int bestMove = moves[0];
+		if (noOfMoves == 1)
+			return bestMove;
+
+		int score = 0;
+		for (int iteration = firstDepth; iteration <= maxDepth && !stopped;
+				iteration++)
+		{
+			int alpha = -INFINITY;
+			int beta = INFINITY;
+			if (iteration > firstDepth)
+			{
+				alpha = score - ASPIRATION_WINDOW;
+				beta = score + ASPIRATION_WINDOW;
+			}
+
+			int widen = ASPIRATION_WINDOW;
+			int iterationMove = 0;
+			while (!stopped)
+			{
+				iterationMove = searchRoot(moves, noOfMoves, iteration,
+						alpha, beta);
+				score = rootScore;
+
+				// Search again with a wider window if the score did not fit
+				if (score <= alpha)
+					alpha = Math.max(score - widen, -INFINITY);
+				else if (score >= beta)
+					beta = Math.min(score + widen, INFINITY);
+				else
+					break;
+				widen *= 4;
+			}
+			if (stopped)
+				break;
+
+			bestMove = iterationMove;
+			completedDepth = iteration;
+			iterationNodes[iteration] = nodes;
+			iterationTimes[iteration] = System.nanoTime() - start;
+			if (listener != null)
+				listener.searchProgress(iteration, bestMove, score,
+						getPrincipalVariation(), nodes);
+
+			// Search the best move first in the next iteration
+			promote(moves, noOfMoves, bestMove);
+		}
+		return bestMove;
+	}
+
+	/**
+	 * Gets the depth of the last completed iteration.
+	 * @return the completed depth
+	 */
+	public int getCompletedDepth()
+	{
+		return completedDepth;
+	}
+
+	/**
+	 * Gets the number of nodes searched.
+	 * @return the number of nodes
+	 */
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	/**
+	 * Gets the number of beta cutoffs in the full width search.
+	 * @return the number of cutoffs
+	 */
+	public long getCutoffs()
+	{
+		return cutoffs;
+	}
+
+	/**
+	 * Gets the number of beta cutoffs caused by the first move searched.
+	 * @return the number of first move cutoffs
+	 */
+	public long getFirstMoveCutoffs()
+	{
+		return firstMoveCutoffs;
+	}
+
+	/**
+	 * Gets the number of nodes searched in the quiescence search.
+	 * @return the number of quiescence nodes
+	 */
+	public long getQuiescenceNodes()
+	{
+		return quiescenceNodes;
+	}
+
+	/**
+	 * Gets the number of times the full width search probed the
+	 * transposition table.
+	 * @return the number of probes
+	 */
+	public long getTableProbes()
+	{
+		return tableProbes;
+	}
+
+	/**
+	 * Gets the number of transposition table probes that found their
+	 * position.
+	 * @return the number of hits
+	 */
+	public long getTableHits()
+	{
+		return tableHits;
+	}
+
+	/**
+	 * Gets the number of nodes searched by the end of an iteration.
+	 * @param depth the depth of the iteration (up to the completed depth)
+	 * @return the number of nodes
+	 */
+	public long getIterationNodes(int depth)
+	{
+		return iterationNodes[depth];
+	}
+
+	/**
+	 * Gets the time taken by the end of an iteration.
+	 * @param depth the depth of the iteration (up to the completed depth)
+	 * @return the time in nanoseconds
+	 */
+	public long getIterationTime(int depth)
+	{
+		return iterationTimes[depth];
+	}
+
+	/**
+	 * Gets the principal variation of the last completed iteration.
+	 * @return the packed moves of the principal variation
+	 */
+	public int[] getPrincipalVariation()
+	{
+		int[] pv = new int[previousPvLength];
+		System.arraycopy(previousPv, 0, pv, 0, previousPvLength);
+		return pv;
+	}
+
+	/**
+	 * Searches all of the root moves to the given depth within the given
+	 * window and keeps track of the best move. The first move gets the whole
+	 * window while the rest are searched with a null window first. The score
+	 * of the best move is kept in rootScore (at most alpha if every move
+	 * failed low, at least beta if a move failed high).
+	 * @param moves the root moves
+	 * @param noOfMoves the number of root moves
+	 * @param depth the depth to search to
+	 * @param alpha the lower bound of the window
+	 * @param beta the upper bound of the window
+	 * @return the best move
+	 */
+	private int searchRoot(int[] moves, int noOfMoves, int depth, int alpha,
+			int beta)
+	{
+		int bestMove = 0;
+		int maxValue = -INFINITY;
+		pvLength[0] = 0;
+
+		for (int index = 0; index < noOfMoves; index++)
+		{
+			int move = moves[index];
+
+			makeMove(move);
+			int value = searchMove(index, Math.max(alpha, maxValue), beta,
+					depth - 1, 0);
+			undoMove(move);
+			if (stopped)
+				return bestMove;
+
+			if (index == 0 || value > maxValue)
+			{
+				updatePv(move);
+				maxValue = value;
+				bestMove = move;
+			}
+
+			// The window is too low, so it has to be searched again
+			if (maxValue >= beta)
+				break;
+		}
+		rootScore = maxValue;
+
+		// Remember the principal variation to order the next iteration
+		previousPvLength = pvLength[0];
+		System.arraycopy(pvTable[0], 0, previousPv, 0, previousPvLength);
+		extendPv(depth);
+		return bestMove;
+	}
+
+	/**
+	 * Searches the move that was just made (principal variation search). The
+	 * first move of a node gets the full window. The others are searched
+	 * with a null window to prove that they are no better than alpha, and are
+	 * only searched again with the full window if the proof fails. A reduced
+	 * move is searched shallower first and is only searched to the full depth
+	 * if it beats alpha.
+	 * @param index the index of the move in its move list
+	 * @param alpha the score the side that made the move is assured of
+	 * @param beta the score the other side is assured of
+	 * @param depth the depth left below the move
+	 * @param reduction how much shallower to search the move first
+	 * @return the score of the move for the side that made it
+	 */
+	private int searchMove(int index, int alpha, int beta, int depth,
+			int reduction)
+	{
+		if (index == 0)
+			return -alphaBeta(-beta, -alpha, depth);
+
+		int value;
+		if (reduction > 0)
+		{
+			value = -alphaBeta(-alpha - 1, -alpha, depth - reduction);
+			if (value <= alpha || stopped)
+				return value;
+		}
+		value = -alphaBeta(-alpha - 1, -alpha, depth);
+		if (value > alpha && value < beta && !stopped)
+			value = -alphaBeta(-beta, -alpha, depth);
+		return value;
+	}
+
+	/**
+	 * Extends the principal variation with the best moves stored in the
+	 * transposition table, since cutoffs from the table cut the principal
+	 * variation short.
+	 * @param depth the depth of the principal variation
+	 */
+	private void extendPv(int depth)
+	{
+		for (int index = 0; index < previousPvLength; index++)
+			position.makeMove(previousPv[index]);
+
+		// The search is not running so any generation's move list can be used
+		int[] moves = moveStack[1];
+		while (previousPvLength < depth)
+		{
+			// Only follow moves that are actually legal here
+			int move = TranspositionTable.getMove(table.probe(position
+					.getKey()));
+			int noOfMoves = position.generateMoves(moves);
+			int index = 0;
+			while (index < noOfMoves && moves[index] != move)
+				index++;
+			if (move == 0 || index == noOfMoves)
+				break;
+
+			position.makeMove(move);
+			previousPv[previousPvLength++] = move;
+		}
+
+		for (int index = previousPvLength - 1; index >= 0; index--)
+			position.unmakeMove(previousPv[index]);
+	}
+
+	/**
+	 * Generates all moves from the current position into the current
+	 * generation's move list and gives each one an ordering value for the
+	 * stage of the move picker it belongs to: the move from the last principal
+	 * variation, the move from the transposition table, captures (most
+	 * valuable victim first), the killer moves and then the other quiet moves
+	 * by their history. The moves are picked in that order by nextMove, which
+	 * moves the captures that lose material behind the killer moves.
+	 * @param tableMove the best move from the transposition table or 0
+	 * @return the number of moves
+	 */
+	private int generateMoves(int tableMove)
+	{
+		int[] moves = moveStack[ply];
+		int[] values = valueStack[ply];
+		int noOfMoves = position.generateMoves(moves);
+		int pvMove = isOnPreviousPv() ? previousPv[ply] : 0;
+		int[][] sideHistory = history[position.getSideToMove()];
+		for (int index = 0; index < noOfMoves; index++)
+		{
+			int move = moves[index];
+			if (move == pvMove)
+				values[index] = PV_MOVE_VALUE;
+			else if (move == tableMove)
+				values[index] = TABLE_MOVE_VALUE;
+			else if (Position.captured(move) != Position.EMPTY)
+				values[index] = CAPTURE_VALUE + getCaptureValue(move);
+			else if (move == killers[ply][0])
+				values[index] = KILLER_VALUE + 1;
+			else if (move == killers[ply][1])
+				values[index] = KILLER_VALUE;
+			else
+				values[index] = sideHistory[Position.from(move)][Position
+						.to(move)] * HISTORY_SCALE + position.getMoveValue(move);
+		}
+		return noOfMoves;
+	}
+
+	/**
+	 * Picks the move with the highest ordering value out of the moves that
+	 * have not been searched yet and swaps it into the given index of the
+	 * current generation's move list. Picking one move at a time means the
+	 * moves after a cutoff are never sorted. A capture that could lose
+	 * material is only checked by static exchange evaluation once it is
+	 * picked, and if it does lose material it gets a losing capture value
+	 * and the next move is picked instead.
+	 * @param index the index of the next move to search
+	 * @param noOfMoves the number of moves
+	 * @return the move to search next
+	 */
+	private int nextMove(int index, int noOfMoves)
+	{
+		int[] moves = moveStack[ply];
+		int[] values = valueStack[ply];
+		int best;
+		while (true)
+		{
+			best = index;
+			for (int other = index + 1; other < noOfMoves; other++)
+				if (values[other] > values[best])
+					best = other;
+
+			if (values[best] < CAPTURE_VALUE
+					|| values[best] >= TABLE_MOVE_VALUE)
+				break;
+			int exchange = getExchangeValue(moves[best]);
+			if (exchange >= 0)
+				break;
+			values[best] = LOSING_CAPTURE_VALUE + exchange;
+		}
+
+		int move = moves[best];
+		moves[best] = moves[index];
+		moves[index] = move;
+		int value = values[best];
+		values[best] = values[index];
+		values[index] = value;
+		return move;
+	}
+
+	/**
+	 * Gives credit to a quiet move that caused a cutoff: it becomes the first
+	 * killer move of the current generation and its history goes up by the
+	 * square of the depth. All of the history is halved if it gets too big.
+	 * @param move the quiet move
+	 * @param depth the depth left at the current generation
+	 */
+	private void updateQuietCutoff(int move, int depth)
+	{
+		if (killers[ply][0] != move)
+		{
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+
+		int[][] sideHistory = history[position.getSideToMove()];
+		int from = Position.from(move);
+		int to = Position.to(move);
+		sideHistory[from][to] += depth * depth;
+		if (sideHistory[from][to] >= HISTORY_LIMIT)
+			for (int[][] eachSide : history)
+				for (int[] fromHistory : eachSide)
+					for (int square = 0; square < fromHistory.length; square++)
+						fromHistory[square] /= 2;
+	}
+
+	/**
+	 * Moves the given move to the front of the list if it is in the list.
+	 * @param moves the packed moves
+	 * @param noOfMoves the number of moves
+	 * @param move the move to put in front
+	 */
+	private static void promote(int[] moves, int noOfMoves, int move)
+	{
+		for (int index = 0; index < noOfMoves; index++)
+			if (moves[index] == move)
+			{
+				System.arraycopy(moves, 0, moves, 1, index);
+				moves[0] = move;
+				return;
+			}
+	}
+
+	/**
+	 * Determines if the moves from the root to the current node follow the
+	 * principal variation of the last completed iteration.
+	 * @return true if the current node is on the last principal variation
+	 */
+	private boolean isOnPreviousPv()
+	{
+		if (ply >= previousPvLength)
+			return false;
+		for (int index = 0; index < ply; index++)
+			if (line[index] != previousPv[index])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Makes the given move the start of the principal variation of the
+	 * current node followed by the principal variation of the node below.
+	 * @param move the best move of the current node
+	 */
+	private void updatePv(int move)
+	{
+		pvTable[ply][ply] = move;
+		int length = pvLength[ply + 1];
+		System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1,
+				length - ply - 1);
+		pvLength[ply] = Math.max(length, ply + 1);
+	}
+
+	/**
+	 * Checks the clock, the node limit and the shared abort flag every so
+	 * often and stops the search if it ran out of time or nodes or was
+	 * aborted. The first iteration is always completed so there is a move to
+	 * make.
+	 * @return true if the search has to stop
+	 */
+	private boolean outOfTime()
+	{
+		nodes++;
+		if (!stopped && (nodes & CLOCK_CHECK_MASK) == 0)
+			stopped = abort.get()
+					|| (previousPvLength > 0 && (nodeLimit > 0
+							&& nodes >= nodeLimit || deadline > 0
+							&& System.currentTimeMillis() >= deadline));
+		return stopped;
+	}
+
+	/**
+	 * Calculates the board value of the current game situation with an
+	 * evaluation function. Positive values are good for the side to move
+	 * while negative values are good for the other side.
+	 * 
+	 * @return the board value of the current game situation.
+	 */
+	private int getBoardValue()
+	{
+		return position.evaluate(position.getSideToMove());
+	}
+
+	/**
+	 * Recursive negamax alpha beta search that determines the best score the
+	 * side to move can be assured of. Scores are always from the point of view
+	 * of the side to move, and the moves after the first are searched with a
+	 * null window (principal variation search). Results are stored in the
+	 * transposition table so that transpositions are only searched once.
+	 * @param alpha the minimum score that the side to move is assured of
+	 * @param beta the maximum score that the other side lets it have
+	 * @param depth the number of generations that this current generation is
+	 *            away from the target depth
+	 * @return the best score of the side to move
+	 */
+	int alphaBeta(int alpha, int beta, int depth)
+	{
+		// Once we reach the last generation, only look at captures until the
+		// position is quiet
+		pvLength[ply] = ply;
+		if (depth <= 0)
+			return quiesce(alpha, beta);
+		if (outOfTime())
+			return 0;
+		if (ply >= MAX_PLY - 1)
+			return getBoardValue();
+
+		// Use the stored result if this position was already searched deep
+		// enough
+		long key = position.getKey();
+		long entry = table.probe(key);
+		tableProbes++;
+		if (entry != 0)
+			tableHits++;
+		if (entry != 0 && TranspositionTable.getDepth(entry) >= depth)
+		{
+			int score = fromTableScore(TranspositionTable.getScore(entry));
+			int bound = TranspositionTable.getBound(entry);
+			if (bound != TranspositionTable.UPPER && score >= beta)
+				return beta;
+			if (bound != TranspositionTable.LOWER && score <= alpha)
+				return alpha;
+			if (bound == TranspositionTable.EXACT)
+				return score;
+		}
+
+		// Endgames in the tablebase are looked up instead of searched, with
+		// the distance to mate counted from the root
+		if (tablebase != null)
+		{
+			int score = tablebase.probe(position);
+			if (score != Tablebase.UNKNOWN)
+			{
+				if (score > 0)
+					score -= ply;
+				else if (score < 0)
+					score += ply;
+				return Math.max(alpha, Math.min(beta, score));
+			}
+		}
+
+		// Null move pruning: if the side to move passes and a shallower search
+		// still fails high, a real move would almost surely fail high too.
+		// Only tried in null window nodes, never twice in a row, never in
+		// check, and never when the side has only soldiers, advisors and
+		// elephants left since those endgames are prone to zugzwang
+		int side = position.getSideToMove();
+		boolean inCheck = position.isChecked(side);
+		if (nullMovePruning && beta - alpha == 1 && depth >= NULL_MOVE_MIN_DEPTH
+				&& !inCheck && (ply == 0 || line[ply - 1] != 0)
+				&& position.hasAttackingPieces(side) && getBoardValue() >= beta)
+		{
+			makeNullMove();
+			int nullValue = -alphaBeta(-beta, -beta + 1, depth - 1
+					- NULL_MOVE_REDUCTION);
+			undoNullMove();
+			if (stopped)
+				return 0;
+			if (nullValue >= beta)
+			{
+				table.store(key, depth, TranspositionTable.LOWER,
+						toTableScore(beta), 0);
+				return beta;
+			}
+		}
+
+		// If there are no moves, the side to move loses (later the closer
+		// it is to the root)
+		int noOfMoves = generateMoves(TranspositionTable.getMove(entry));
+		if (noOfMoves == 0)
+			return -MATE + ply;
+
+		int bestMove = 0;
+		int bound = TranspositionTable.UPPER;
+		for (int index = 0; index < noOfMoves; index++)
+		{
+			int move = nextMove(index, noOfMoves);
+			boolean quiet = Position.captured(move) == Position.EMPTY
+					&& valueStack[ply][index] < KILLER_VALUE;
+			makeMove(move);
+
+			// Late move reductions: quiet moves ordered after the killers are
+			// unlikely to be best, so they are searched shallower first unless
+			// either side is in check
+			int reduction = 0;
+			if (lateMoveReductions && quiet && index >= FULL_DEPTH_MOVES
+					&& depth >= REDUCTION_MIN_DEPTH && !inCheck
+					&& !position.isChecked(position.getSideToMove()))
+				reduction = index >= DOUBLE_REDUCTION_MOVES
+						&& depth > REDUCTION_MIN_DEPTH ? 2 : 1;
+			int currentValue = searchMove(index, alpha, beta, depth - 1,
+					reduction);
+			undoMove(move);
+			if (stopped)
+				return 0;
+
+			if (currentValue >= beta)
+			{
+				cutoffs++;
+				if (index == 0)
+					firstMoveCutoffs++;
+				if (Position.captured(move) == Position.EMPTY)
+					updateQuietCutoff(move, depth);
+				table.store(key, depth, TranspositionTable.LOWER,
+						toTableScore(beta), move);
+				return beta;
+			}
+			if (currentValue > alpha)
+			{
+				alpha = currentValue;
+				bestMove = move;
+				updatePv(move);
+				bound = TranspositionTable.EXACT;
+			}
+		}
+		table.store(key, depth, bound, toTableScore(alpha), bestMove);
+		return alpha;
+	}
+
+	/**
+	 * Converts a score to store in the transposition table. Mate scores count
+	 * the plies from the root, so they are stored counting from this node
+	 * instead to be right wherever the position comes up again.
+	 * @param score the score counting from the root
+	 * @return the score counting from this node
+	 */
+	private int toTableScore(int score)
+	{
+		if (score >= MATE_BOUND)
+			return score + ply;
+		if (score <= -MATE_BOUND)
+			return score - ply;
+		return score;
+	}
+
+	/**
+	 * Converts a score from the transposition table back to count the plies
+	 * to mate from the root.
+	 * @param score the score counting from this node
+	 * @return the score counting from the root
+	 */
+	private int fromTableScore(int score)
+	{
+		if (score >= MATE_BOUND)
+			return score - ply;
+		if (score <= -MATE_BOUND)
+			return score + ply;
+		return score;
+	}
+
+	/**
+	 * Negamax quiescence search. Only captures (and check evasions if turned
+	 * on) are searched so that the board value is never taken in the middle
+	 * of an exchange. The side to move can also "stand pat" and take the
+	 * current board value instead of capturing.
+	 * @param alpha the minimum score that the side to move is assured of
+	 * @param beta the maximum score that the other side lets it have
+	 * @return the best score of the side to move
+	 */
+	private int quiesce(int alpha, int beta)
+	{
+		pvLength[ply] = ply;
+		quiescenceNodes++;
+		if (outOfTime())
+			return 0;
+		if (ply >= MAX_PLY - 1)
+			return getBoardValue();
+
+		// A side in check has to get out of it so it cannot stand pat
+		boolean evading = checkEvasions
+				&& position.isChecked(position.getSideToMove());
+		int noOfMoves;
+		if (evading)
+		{
+			noOfMoves = generateMoves(0);
+			if (noOfMoves == 0)
+				return -MATE + ply;
+		}
+		else
+		{
+			int standPat = getBoardValue();
+			if (standPat >= beta)
+				return beta;
+			if (standPat > alpha)
+				alpha = standPat;
+			noOfMoves = generateCaptures();
+		}
+
+		for (int index = 0; index < noOfMoves; index++)
+		{
+			// Captures that lose material can hardly raise alpha, so they are
+			// pruned (they come after all of the others)
+			int move = nextMove(index, noOfMoves);
+			if (!evading && valueStack[ply][index] < CAPTURE_VALUE)
+				break;
+			makeMove(move);
+			int currentValue = -quiesce(-beta, -alpha);
+			undoMove(move);
+			if (stopped)
+				return 0;
+
+			if (currentValue >= beta)
+				return beta;
+			if (currentValue > alpha)
+				alpha = currentValue;
+		}
+		return alpha;
+	}
+
+	/**
+	 * Generates all captures from the current position into the current
+	 * generation's move list. They are picked by nextMove most valuable
+	 * victim first and then least valuable attacker, with the captures that
+	 * lose material last.
+	 * @return the number of captures
+	 */
+	private int generateCaptures()
+	{
+		int[] moves = moveStack[ply];
+		int[] values = valueStack[ply];
+		int noOfMoves = position.generateCaptures(moves);
+		for (int index = 0; index < noOfMoves; index++)
+			values[index] = CAPTURE_VALUE + getCaptureValue(moves[index]);
+		return noOfMoves;
+	}
+
+	/**
+	 * Calculates how much material a capture wins by static exchange
+	 * evaluation. A capture of a piece worth at least as much as the
+	 * capturing piece cannot lose material, so its exchange is not worked
+	 * out and its value is only a lower bound.
+	 * @param move the capture
+	 * @return the material won (at least 0 if the capture does not lose)
+	 */
+	private int getExchangeValue(int move)
+	{
+		int gain = position.getPieceValue(Position.type(Position
+				.captured(move)))
+				- position.getPieceValue(Position.type(Position.moved(move)));
+		if (gain >= 0)
+			return gain;
+		return position.see(move);
+	}
+
+	/**
+	 * Calculates the ordering value of a capture: most valuable victim
+	 * first and then least valuable attacker.
+	 * @param move the capture
+	 * @return the ordering value
+	 */
+	private int getCaptureValue(int move)
+	{
+		return 16 * position.getPieceValue(Position.type(Position
+				.captured(move)))
+				- position.getPieceValue(Position.type(Position.moved(move)))
+				/ 16;
+	}
+
+	/**
+	 * Executes the given move, keeping track of the line from the root.
+	 * @param move the move to make
+	 */
+	private void makeMove(int move)
+	{
+		position.makeMove(move);
+		line[ply++] = move;
+	}
+
+	/**
+	 * Undos the given move, keeping track of the line from the root.
+	 * @param move the move to undo
+	 */
+	private void undoMove(int move)
+	{
+		position.unmakeMove(move);
+		ply--;
+	}
+
+	/**
+	 * Passes the turn to the other side, keeping track of the line from the
+	 * root (where a null move is 0).
+	 */
+	private void makeNullMove()
+	{
+		position.makeNullMove();
+		line[ply++] = 0;
+	}
+
+	/**
+	 * Undos a null move, keeping track of the line from the root.
+	 */
+	private void undoNullMove()
+	{
+		position.unmakeNullMove();
+		ply--;
+	}
+}
@@ -28,6 +28,8 @@ public class SidePanel extends JPanel
 			GamePanel.SPACING / 2);
 	private static final Font CHECK_FONT = new Font("Arial", Font.BOLD,
 			GamePanel.SPACING / 3);
+	private static final Font THINKING_FONT = new Font("Arial", Font.BOLD,
+			GamePanel.SPACING / 4);
 
 	public static final int WIDTH = (int) (3.5 * Piece.WIDTH);
 	public static final int HEIGHT = GamePanel.HEIGHT;
@@ -45,6 +47,10 @@ public class SidePanel extends JPanel
 	// Each side panel will keep track of a different player
 	private Player player;
 
+	// The lines of the thinking indicator (none when the player is not
+	// thinking)
+	private String[] thinking;
+
 	/**
 	 * Constructs a new SidePanel with the given side and Player
 	 * @param side the side of the panel (left = 0, right = 1)
@@ -70,6 +76,17 @@ public class SidePanel extends JPanel
 		
 		this.side = side;
 		this.player = player;
+		thinking = new String[0];
+	}
+
+	/**
+	 * Sets the thinking indicator shown in the status box while this
+	 * Player is not in check.
+	 * @param thinking the lines to show (none to hide the indicator)
+	 */
+	public void setThinking(String... thinking)
+	{
+		this.thinking = thinking;
 	}
 
 	/**
@@ -127,6 +144,7 @@ public class SidePanel extends JPanel
 			{
 				g.setColor(OUT_TURN_COLOUR);
 				g.fillRect(GamePanel.THICKNESS, HEIGHT / 8, WIDTH, HEIGHT / 14);
+				drawThinking(g, GamePanel.THICKNESS);
 			}
 		}
 		else
@@ -175,6 +193,7 @@ public class SidePanel extends JPanel
 				g.setColor(OUT_TURN_COLOUR);
 				g.fillRect(0, HEIGHT / 8, WIDTH - GamePanel.THICKNESS,
 						HEIGHT / 14);
+				drawThinking(g, 0);
 			}
 		}
 
@@ -203,4 +222,19 @@ public class SidePanel extends JPanel
 				// side == RIGHT
 				GamePanel.selectedPiece.draw(g, -GamePanel.WIDTH, 0);
 	}
+
+	/**
+	 * Draws the lines of the thinking indicator in the status box.
+	 * @param g the Graphics context to do the drawing
+	 * @param x the left edge of the status box
+	 */
+	private void drawThinking(Graphics g, int x)
+	{
+		g.setColor(Color.BLACK);
+		g.setFont(THINKING_FONT);
+		int lineHeight = HEIGHT / 14 / (thinking.length + 1);
+		for (int line = 0; line < thinking.length; line++)
+			g.drawString(thinking[line], x + WIDTH / 12, HEIGHT / 8
+					+ (line + 1) * lineHeight + THINKING_FONT.getSize() / 3);
+	}
 }
@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks the multi-threaded search. Searches a few positions for a fixed
+ * time with 1, 2, 4... up to N threads and reports the nodes per second and
+ * the speedup over one thread. Run with: java SmpBenchmark [maxThreads]
+ * [milliseconds per position]
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class SmpBenchmark
+{
+	// Positions to search: the opening, a middlegame and an endgame
+	private static final String[] POSITIONS = {
+			Position.START_FEN,
+			"r1bakab1r/9/1cn3nc1/p1p1p1p1p/9/2P6/P3P1P1P/1C2C1N2/9/RNBAKAB1R b",
+			"3ak4/4a4/4b4/9/9/9/9/4B4/4A4/2R1KA3 w" };
+
+	/**
+	 * Runs the benchmark.
+	 * @param args the maximum number of threads and the time per position
+	 */
+	public static void main(String[] args)
+	{
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		long timeLimit = 2000;
+		if (args.length > 0)
+			maxThreads = Math.max(1, Integer.parseInt(args[0]));
+		if (args.length > 1)
+			timeLimit = Long.parseLong(args[1]);
+
+		// Warm up the JIT compiler first
+		measure(1, timeLimit / 2);
+
+		// 1, 2, 4... threads and then the exact maximum if it is not a power
+		// of two
+		List<Integer> threadCounts = new ArrayList<Integer>();
+		for (int threads = 1; threads <= maxThreads; threads *= 2)
+			threadCounts.add(threads);
+		if (threadCounts.get(threadCounts.size() - 1) != maxThreads)
+			threadCounts.add(maxThreads);
+
+		System.out.printf("%8s %14s %10s%n", "Threads", "Nodes/sec", "Speedup");
+		double singleThreaded = 0;
+		for (int threads : threadCounts)
+		{
+			double nodesPerSecond = measure(threads, timeLimit);
+			if (threads == 1)
+				singleThreaded = nodesPerSecond;
+			System.out.printf("%8d %14.0f %10.2f%n", threads, nodesPerSecond,
+					nodesPerSecond / singleThreaded);
+		}
+	}
+
+	/**
+	 * Measures the nodes per second of a fixed time search of every position
+	 * with the given number of threads.
+	 * @param threads the number of threads
+	 * @param timeLimit the time to search each position in milliseconds
+	 * @return the nodes searched per second
+	 */
+	private static double measure(int threads, long timeLimit)
+	{
+		long nodes = 0;
+		long time = 0;
+		for (String fen : POSITIONS)
+		{
+			Position position = new Position(fen);
+			Computer computer = new Computer(position.getSideToMove(),
+					Searcher.MAX_PLY, timeLimit);
+			computer.setThreads(threads);
+
+			long start = System.nanoTime();
+			computer.bestMove(position, false);
+			time += System.nanoTime() - start;
+			nodes += computer.getNodes();
+		}
+		return nodes * 1e9 / time;
+	}
+}
@@ -0,0 +1,430 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps track of the endgame tablebases made by TablebaseGenerator. Each
+ * table covers every position of one material signature, such as "KRKAABB"
+ * (red general and chariot against black general, two advisors and two
+ * elephants), with either side to move. It stores one byte per position: 0
+ * for a draw, otherwise the number of plies to mate plus 1. An odd number of
+ * plies means the side to move wins and an even number means it loses. The
+ * files are mapped into memory like the opening book. A table also answers
+ * for the same material with the colours swapped.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class Tablebase
+{
+	// File layout: the header size, the magic number ("XQTB"), the version
+	// and the file name extension
+	public static final int HEADER_SIZE = 16;
+	public static final int MAGIC = 0x58515442;
+	public static final int VERSION = 1;
+	public static final String EXTENSION = ".xtb";
+
+	// Score of a win in 0 plies (the distance is taken off), on the same
+	// scale as a mate found by the search, and the result of a probe for a
+	// position that is not in any table
+	public static final int WIN_SCORE = Searcher.MATE;
+	public static final int UNKNOWN = Integer.MIN_VALUE;
+
+	// The longest distance to mate a table can store
+	public static final int MAX_DISTANCE = 254;
+
+	// Letters of the piece types and the order of the piece types of each side
+	// in a signature (after the general)
+	private static final String LETTERS = "?KABNRCP";
+	private static final int[] SIGNATURE_ORDER = { Position.CHARIOT,
+			Position.CANNON, Position.HORSE, Position.SOLDIER,
+			Position.ADVISOR, Position.ELEPHANT };
+
+	// The squares each piece code can ever stand on
+	private static final int[][] DOMAINS = new int[16][];
+
+	static
+	{
+		for (int code = 0; code < DOMAINS.length; code++)
+		{
+			int type = Position.type(code);
+			if (type == Position.EMPTY)
+				continue;
+
+			int[] squares = new int[Position.NO_OF_SQUARES];
+			int count = 0;
+			for (int square = 0; square < Position.NO_OF_SQUARES; square++)
+			{
+				// Work out the squares for red and mirror them for black
+				int redSquare = Position.colour(code) == Piece.RED ? square
+						: Position.mirror(square);
+				int row = Position.row(redSquare);
+				int col = Position.column(redSquare);
+				boolean palace = row >= 7 && col >= 3 && col <= 5;
+				boolean allowed;
+				if (type == Position.GENERAL)
+					allowed = palace;
+				else if (type == Position.ADVISOR)
+					allowed = palace && (row + col) % 2 == 0;
+				else if (type == Position.ELEPHANT)
+					allowed = row >= 5 && row % 2 == 1 && col % 2 == 0
+							&& (row + col) % 4 == 3;
+				else if (type == Position.SOLDIER)
+					allowed = row <= 4 || (row <= 6 && col % 2 == 0);
+				else
+					allowed = true;
+				if (allowed)
+					squares[count++] = square;
+			}
+			DOMAINS[code] = new int[count];
+			System.arraycopy(squares, 0, DOMAINS[code], 0, count);
+		}
+	}
+
+	/**
+	 * Keeps track of the layout of one table: which pieces it has, the
+	 * squares each of them can be on and where each position is stored. The
+	 * pieces are in the order of the signature, red first, each side's
+	 * general first, so the index of a position is the domain index of each
+	 * piece's square in turn followed by the side to move.
+	 */
+	static class Table
+	{
+		final String signature;
+		final long materialKey;
+		final int[] codes;
+		final int[] slots;
+		final int[][] domainIndexes;
+		final long size;
+
+		// The values of the positions (null while it is being generated)
+		ByteBuffer values;
+
+		/**
+		 * Constructs the layout of the table of a signature.
+		 * @param signature the signature, such as KRKAABB
+		 */
+		Table(String signature)
+		{
+			this.signature = signature;
+			int second = signature.indexOf('K', 1);
+			if (!signature.startsWith("K") || second < 0
+					|| signature.indexOf('K', second + 1) >= 0)
+				throw new IllegalArgumentException("Bad signature: "
+						+ signature);
+
+			codes = new int[signature.length()];
+			slots = new int[codes.length];
+			domainIndexes = new int[codes.length][];
+			long positions = 2;
+			long key = 0;
+			int[] nextSlot = { 1, 17 };
+			for (int piece = 0; piece < codes.length; piece++)
+			{
+				int colour = piece < second ? Piece.RED : Piece.BLACK;
+				int type = LETTERS.indexOf(signature.charAt(piece));
+				if (type <= 0 || (type == Position.GENERAL) != (piece == 0
+						|| piece == second))
+					throw new IllegalArgumentException("Bad signature: "
+							+ signature);
+				codes[piece] = Position.codeOf(type, colour);
+				slots[piece] = type == Position.GENERAL ? colour * 16
+						: nextSlot[colour]++;
+				if (type != Position.GENERAL)
+					key += materialUnit(type, colour);
+
+				// Squares that are not in the domain get -1
+				int[] domain = DOMAINS[codes[piece]];
+				domainIndexes[piece] = new int[Position.NO_OF_SQUARES];
+				Arrays.fill(domainIndexes[piece], -1);
+				for (int index = 0; index < domain.length; index++)
+					domainIndexes[piece][domain[index]] = index;
+				positions *= domain.length;
+			}
+			if (!signature.equals(toSignature(codes, codes.length)))
+				throw new IllegalArgumentException("Pieces of " + signature
+						+ " are not in signature order");
+			materialKey = key;
+			size = positions;
+		}
+
+		/**
+		 * Gets the index of a position.
+		 * @param squares the square of each piece in signature order
+		 * @param sideToMove the colour of the player to move
+		 * @return the index or -1 if a piece is on a square outside of its
+		 *         domain
+		 */
+		long index(int[] squares, int sideToMove)
+		{
+			long index = 0;
+			for (int piece = 0; piece < codes.length; piece++)
+			{
+				int domainIndex = domainIndexes[piece][squares[piece]];
+				if (domainIndex < 0)
+					return -1;
+				index = index * DOMAINS[codes[piece]].length + domainIndex;
+			}
+			return index * 2 + sideToMove;
+		}
+
+		/**
+		 * Gets the position of an index.
+		 * @param index the index
+		 * @param squares the array to put the square of each piece in
+		 * @return the colour of the player to move
+		 */
+		int position(long index, int[] squares)
+		{
+			int sideToMove = (int) (index & 1);
+			index >>= 1;
+			for (int piece = codes.length - 1; piece >= 0; piece--)
+			{
+				int[] domain = DOMAINS[codes[piece]];
+				squares[piece] = domain[(int) (index % domain.length)];
+				index /= domain.length;
+			}
+			return sideToMove;
+		}
+
+		/**
+		 * Gets the squares the given piece can ever stand on.
+		 * @param piece the index of the piece in signature order
+		 * @return the squares
+		 */
+		int[] domain(int piece)
+		{
+			return DOMAINS[codes[piece]];
+		}
+
+		/**
+		 * Gets the stored value of a position.
+		 * @param index the index of the position
+		 * @return 0 for a draw, otherwise the distance to mate plus 1
+		 */
+		int value(long index)
+		{
+			return values.get((int) (HEADER_SIZE + index)) & 0xFF;
+		}
+	}
+
+	// The tables and the most pieces in any of them
+	private final List<Table> tables;
+	private int maxPieces;
+
+	// The squares of the pieces being probed, one array for each thread so
+	// that probing in the search allocates nothing
+	private static final ThreadLocal<int[]> SQUARES = new ThreadLocal<int[]>()
+	{
+		protected int[] initialValue()
+		{
+			return new int[32];
+		}
+	};
+
+	/**
+	 * Constructs a new empty Tablebase.
+	 */
+	public Tablebase()
+	{
+		tables = new ArrayList<Table>();
+	}
+
+	/**
+	 * Opens every table file in the given directory by mapping it into
+	 * memory.
+	 * @param directory the directory of table files
+	 * @return the Tablebase
+	 * @throws IOException if a file cannot be mapped or is not a table
+	 */
+	public static Tablebase open(File directory) throws IOException
+	{
+		Tablebase tablebase = new Tablebase();
+		File[] files = directory.listFiles();
+		if (files == null)
+			throw new IOException("Not a directory: " + directory);
+		for (File file : files)
+			if (file.getName().endsWith(Tablebase.EXTENSION))
+				tablebase.add(file);
+		return tablebase;
+	}
+
+	/**
+	 * Maps a table file into memory and adds it to the tablebase.
+	 * @param file the table file (named after its signature)
+	 * @throws IOException if the file cannot be mapped or is not a table
+	 */
+	public void add(File file) throws IOException
+	{
+		String name = file.getName();
+		Table table = new Table(name.substring(0, name.length()
+				- EXTENSION.length()));
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try
+		{
+			FileChannel channel = in.getChannel();
+			table.values = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		}
+		finally
+		{
+			in.close();
+		}
+
+		if (table.values.capacity() != HEADER_SIZE + table.size
+				|| table.values.getInt(0) != MAGIC
+				|| table.values.getInt(4) != VERSION
+				|| table.values.getLong(8) != table.size)
+			throw new IOException("Not a table for " + table.signature + ": "
+					+ file);
+		tables.add(table);
+		maxPieces = Math.max(maxPieces, table.codes.length);
+	}
+
+	/**
+	 * Gets the number of tables.
+	 * @return the number of tables
+	 */
+	public int size()
+	{
+		return tables.size();
+	}
+
+	/**
+	 * Gets the table of a material key, if it is in the tablebase.
+	 * @param materialKey the material key
+	 * @return the table or null
+	 */
+	Table getTable(long materialKey)
+	{
+		for (Table table : tables)
+			if (table.materialKey == materialKey)
+				return table;
+		return null;
+	}
+
+	/**
+	 * Looks up the score of a position. Scores are from the point of view of
+	 * the side to move: WIN_SCORE minus the plies to mate for a win, the
+	 * negative of that for a loss and 0 for a draw.
+	 * @param position the position
+	 * @return the score or UNKNOWN if the position is not in any table
+	 */
+	public int probe(Position position)
+	{
+		// Count the pieces first so that most positions return at once
+		int pieces = 0;
+		long key = 0;
+		long swappedKey = 0;
+		for (int index = 0; index < 32; index++)
+			if (position.getPieceSquare(index) != Position.NO_SQUARE)
+			{
+				if (++pieces > maxPieces)
+					return UNKNOWN;
+				int code = position.getPieceCode(index);
+				int type = Position.type(code);
+				if (type != Position.GENERAL)
+				{
+					key += materialUnit(type, Position.colour(code));
+					swappedKey += materialUnit(type, Position.colour(code) ^ 1);
+				}
+			}
+
+		// Try the table with the colours as they are and then with the
+		// colours swapped (and the board turned around)
+		for (int swap = 0; swap < 2; swap++)
+		{
+			Table table = getTable(swap == 0 ? key : swappedKey);
+			if (table == null)
+				continue;
+
+			int[] squares = SQUARES.get();
+			int piece = 0;
+			for (int colour = 0; colour < 2; colour++)
+			{
+				// A position without a general is not legal
+				int from = (colour ^ swap) * 16;
+				if (position.getPieceSquare(from) == Position.NO_SQUARE)
+					return UNKNOWN;
+				squares[piece++] = turn(position.getPieceSquare(from), swap);
+				for (int type : SIGNATURE_ORDER)
+					for (int index = from + 1; index < from + 16; index++)
+						if (position.getPieceSquare(index) != Position.NO_SQUARE
+								&& Position.type(position.getPieceCode(index))
+								== type)
+							squares[piece++] = turn(position
+									.getPieceSquare(index), swap);
+			}
+			long index = table.index(squares, position.getSideToMove()
+					^ swap);
+			if (index < 0)
+				return UNKNOWN;
+			return toScore(table.value(index));
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Converts a stored value to a score for the side to move.
+	 * @param value 0 for a draw, otherwise the distance to mate plus 1
+	 * @return the score
+	 */
+	static int toScore(int value)
+	{
+		if (value == 0)
+			return 0;
+		int distance = value - 1;
+		if (distance % 2 == 1)
+			return WIN_SCORE - distance;
+		return -(WIN_SCORE - distance);
+	}
+
+	/**
+	 * Turns a square around (across the river) if the colours are swapped.
+	 * @param square the square index
+	 * @param swap 1 if the colours are swapped
+	 * @return the square
+	 */
+	private static int turn(int square, int swap)
+	{
+		return swap == 0 ? square : Position.mirror(square);
+	}
+
+	/**
+	 * Gets the amount one piece adds to a material key. Each piece type of
+	 * each side gets its own 3-bit count.
+	 * @param type the piece type
+	 * @param colour the colour of the piece
+	 * @return the amount to add
+	 */
+	static long materialUnit(int type, int colour)
+	{
+		return 1L << 3 * (colour * 8 + type);
+	}
+
+	/**
+	 * Makes the signature of the given pieces, putting each side's pieces in
+	 * signature order.
+	 * @param codes the piece codes
+	 * @param count the number of pieces
+	 * @return the signature, such as KRKAABB
+	 */
+	static String toSignature(int[] codes, int count)
+	{
+		StringBuilder signature = new StringBuilder();
+		for (int colour = 0; colour < 2; colour++)
+		{
+			signature.append('K');
+			for (int type : SIGNATURE_ORDER)
+				for (int piece = 0; piece < count; piece++)
+					if (codes[piece] == Position.codeOf(type, colour))
+						signature.append(LETTERS.charAt(type));
+		}
+		return signature.toString();
+	}
+}
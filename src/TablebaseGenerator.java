@@ -0,0 +1,536 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates endgame tables for Tablebase offline by retrograde analysis. The
+ * tables of every signature that a capture can lead to are generated (or
+ * loaded) first. Then the positions where the side to move has no moves are
+ * marked as lost in 0 plies. After that, each round only looks at the
+ * positions that a move could have led from to the positions decided in the
+ * last round (found by taking moves back) and at the positions waiting on a
+ * capture into a smaller table. A position is won in n plies if a move leads
+ * to a position lost in n - 1 plies, and lost in n plies if every move leads
+ * to a won position and the longest of them is won in n - 1 plies. The
+ * positions that are never decided are draws. Each round is split across
+ * several threads. Perpetual check and chasing rules are not taken into
+ * account. Run with: java TablebaseGenerator [-dir D] [-threads N] [-memory
+ * MB] SIGNATURE...
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class TablebaseGenerator
+{
+	// Default directory and memory limit in megabytes, and the number of
+	// positions each thread takes at a time
+	public static final String DEFAULT_DIRECTORY = "tablebases";
+	public static final int DEFAULT_MEMORY = 1024;
+	private static final int CHUNK_SIZE = 1 << 14;
+
+	// Bytes of memory used per position: the value, whether it is to be looked
+	// at this round and next round and whether it is waiting on a capture
+	private static final int BYTES_PER_POSITION = 4;
+
+	// Row and column steps: the first four are orthogonal and the last four
+	// are diagonal
+	private static final int[] DROW = { -1, 0, +1, 0, -1, +1, +1, -1 };
+	private static final int[] DCOL = { 0, +1, 0, -1, +1, +1, -1, -1 };
+
+	// Where the tables go, the tables generated or loaded so far and the
+	// limits
+	private final File directory;
+	private final Tablebase tablebase;
+	private final int threads;
+	private final long memoryLimit;
+
+	// The table being generated: its layout, the table of each capture, the
+	// values and the positions to look at
+	private Tablebase.Table table;
+	private Tablebase.Table[] captureTables;
+	private byte[] values;
+	private byte[] candidates, nextCandidates, waiting;
+
+	/**
+	 * Looks at the positions of the table being generated on one thread. Each
+	 * Worker has its own Position and buffers.
+	 */
+	private class Worker implements Callable<long[]>
+	{
+		private final Position position;
+		private final int[] moves;
+		private final int[] squares;
+		private final int[] childSquares;
+		private final boolean[] occupied;
+
+		// The round being looked at and the chunks of it left
+		private int distance;
+		private boolean allPositions;
+		private AtomicInteger nextChunk;
+
+		/**
+		 * Constructs a new Worker.
+		 */
+		Worker()
+		{
+			position = new Position(Position.START_FEN);
+			moves = new int[Position.MAX_MOVES];
+			squares = new int[32];
+			childSquares = new int[32];
+			occupied = new boolean[Position.NO_OF_SQUARES];
+		}
+
+		/**
+		 * Looks at the positions of a round, a chunk at a time.
+		 * @return the number of positions decided and still waiting on a
+		 *         capture
+		 */
+		public long[] call()
+		{
+			long decided = 0;
+			long stillWaiting = 0;
+			int chunk;
+			while ((long) (chunk = nextChunk.getAndIncrement()) * CHUNK_SIZE
+					< values.length)
+			{
+				int end = (int) Math.min(values.length, (long) (chunk + 1)
+						* CHUNK_SIZE);
+				for (int index = chunk * CHUNK_SIZE; index < end; index++)
+					if (values[index] == 0
+							&& (allPositions || candidates[index] != 0
+									|| waiting[index] != 0))
+					{
+						if (decide(index))
+							decided++;
+						else if (waiting[index] != 0)
+							stillWaiting++;
+					}
+			}
+			return new long[] { decided, stillWaiting };
+		}
+
+		/**
+		 * Tries to decide a position in this round by looking at every move.
+		 * @param index the index of the position
+		 * @return true if it was decided
+		 */
+		private boolean decide(int index)
+		{
+			int sideToMove = table.position(index, squares);
+			int noOfPieces = table.codes.length;
+			if (!position.setPieces(table.codes, squares, noOfPieces,
+					sideToMove) || position.isChecked(sideToMove ^ 1))
+				return false;
+
+			// Find the shortest loss and the longest win that a move leads to
+			int shortestLoss = Integer.MAX_VALUE;
+			int longestWin = -1;
+			boolean allWins = true;
+			int noOfMoves = position.generateMoves(moves);
+			for (int move = 0; move < noOfMoves; move++)
+			{
+				position.makeMove(moves[move]);
+				int value;
+				int captured = -1;
+				if (Position.captured(moves[move]) != Position.EMPTY)
+					captured = capturedPiece();
+				if (captured < 0)
+				{
+					for (int piece = 0; piece < noOfPieces; piece++)
+						childSquares[piece] = position
+								.getPieceSquare(table.slots[piece]);
+					value = values[(int) table.index(childSquares, sideToMove
+							^ 1)] & 0xFF;
+				}
+				else
+				{
+					int childPiece = 0;
+					for (int piece = 0; piece < noOfPieces; piece++)
+						if (piece != captured)
+							childSquares[childPiece++] = position
+									.getPieceSquare(table.slots[piece]);
+					value = captureTables[captured].value(captureTables[captured]
+							.index(childSquares, sideToMove ^ 1));
+				}
+				position.unmakeMove(moves[move]);
+
+				if (value == 0)
+					allWins = false;
+				else if ((value - 1) % 2 == 0)
+				{
+					shortestLoss = Math.min(shortestLoss, value - 1);
+					allWins = false;
+				}
+				else
+					longestWin = Math.max(longestWin, value - 1);
+			}
+
+			// A side with no moves loses
+			int result = -1;
+			if (noOfMoves == 0)
+				result = 0;
+			else if (shortestLoss != Integer.MAX_VALUE)
+				result = shortestLoss + 1;
+			else if (allWins)
+				result = longestWin + 1;
+
+			if (result == distance)
+			{
+				values[index] = (byte) (result + 1);
+				waiting[index] = 0;
+				markPredecessors(sideToMove);
+				return true;
+			}
+
+			// Wait for a later round if a capture leads to a longer result
+			waiting[index] = (byte) (result > distance
+					&& result <= Tablebase.MAX_DISTANCE ? 1 : 0);
+			return false;
+		}
+
+		/**
+		 * Finds the piece captured by the last move (the only piece that is
+		 * no longer on the board).
+		 * @return the index of the captured piece in signature order
+		 */
+		private int capturedPiece()
+		{
+			for (int piece = 0; piece < table.codes.length; piece++)
+				if (position.getPieceSquare(table.slots[piece]) == Position.NO_SQUARE)
+					return piece;
+			throw new IllegalStateException("No piece was captured");
+		}
+
+		/**
+		 * Marks every position that a move could have led from to the current
+		 * position (from squares) to be looked at next round. Moves are taken
+		 * back without checking horse legs or elephant eyes, so a few of the
+		 * positions marked are not really predecessors, which only costs time.
+		 * @param sideToMove the colour of the player to move
+		 */
+		private void markPredecessors(int sideToMove)
+		{
+			int mover = sideToMove ^ 1;
+			int noOfPieces = table.codes.length;
+			Arrays.fill(occupied, false);
+			for (int piece = 0; piece < noOfPieces; piece++)
+				occupied[squares[piece]] = true;
+
+			for (int piece = 0; piece < noOfPieces; piece++)
+			{
+				int code = table.codes[piece];
+				if (Position.colour(code) != mover)
+					continue;
+
+				int square = squares[piece];
+				int row = Position.row(square);
+				int col = Position.column(square);
+				int type = Position.type(code);
+				if (type == Position.CHARIOT || type == Position.CANNON)
+				{
+					for (int dir = 0; dir < 4; dir++)
+						for (int step = 1; markOrigin(piece, row + step
+								* DROW[dir], col + step * DCOL[dir], mover); step++)
+							;
+				}
+				else if (type == Position.HORSE)
+				{
+					for (int dir = 0; dir < 8; dir++)
+						markOrigin(piece, row + Horse.DROW[dir], col
+								+ Horse.DCOL[dir], mover);
+				}
+				else if (type == Position.SOLDIER)
+				{
+					// Soldiers only move forward, or sideways past the river
+					int back = mover == Piece.RED ? +1 : -1;
+					markOrigin(piece, row + back, col, mover);
+					if (mover == Piece.RED ? row <= 4 : row >= 5)
+					{
+						markOrigin(piece, row, col - 1, mover);
+						markOrigin(piece, row, col + 1, mover);
+					}
+				}
+				else
+				{
+					// Generals step orthogonally, advisors diagonally and
+					// elephants two squares diagonally
+					int firstDir = type == Position.GENERAL ? 0 : 4;
+					int steps = type == Position.ELEPHANT ? 2 : 1;
+					for (int dir = firstDir; dir < firstDir + 4; dir++)
+						markOrigin(piece, row + steps * DROW[dir], col + steps
+								* DCOL[dir], mover);
+				}
+			}
+		}
+
+		/**
+		 * Marks the position with a piece moved back to the given square if
+		 * the square is empty and the piece can stand there.
+		 * @param piece the index of the piece in signature order
+		 * @param row the row the piece came from
+		 * @param col the column the piece came from
+		 * @param mover the colour of the side that moved
+		 * @return true if the square was empty (so sliding pieces go on)
+		 */
+		private boolean markOrigin(int piece, int row, int col, int mover)
+		{
+			if (row < 0 || row > 9 || col < 0 || col > 8)
+				return false;
+			int origin = Position.toSquare(row, col);
+			if (occupied[origin])
+				return false;
+
+			int square = squares[piece];
+			squares[piece] = origin;
+			long index = table.index(squares, mover);
+			squares[piece] = square;
+			if (index >= 0)
+				nextCandidates[(int) index] = 1;
+			return true;
+		}
+	}
+
+	/**
+	 * Constructs a new TablebaseGenerator.
+	 * @param directory the directory to write (and find) the tables in
+	 * @param threads the number of threads
+	 * @param memoryLimit the most memory a table can use while it is being
+	 *            generated in bytes
+	 * @throws IOException if the tables already there cannot be opened
+	 */
+	public TablebaseGenerator(File directory, int threads, long memoryLimit)
+			throws IOException
+	{
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Cannot make directory: " + directory);
+		this.directory = directory;
+		this.threads = Math.max(1, threads);
+		this.memoryLimit = memoryLimit;
+		tablebase = Tablebase.open(directory);
+	}
+
+	/**
+	 * Runs the generator.
+	 * @param args the options followed by the signatures to generate
+	 * @throws Exception if a table cannot be generated
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		String directory = DEFAULT_DIRECTORY;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long memory = DEFAULT_MEMORY;
+		List<String> signatures = new ArrayList<String>();
+		boolean valid = true;
+		try
+		{
+			for (int arg = 0; arg < args.length && valid; arg++)
+			{
+				if (args[arg].equals("-dir") && arg + 1 < args.length)
+					directory = args[++arg];
+				else if (args[arg].equals("-threads") && arg + 1 < args.length)
+					threads = Integer.parseInt(args[++arg]);
+				else if (args[arg].equals("-memory") && arg + 1 < args.length)
+					memory = Long.parseLong(args[++arg]);
+				else if (args[arg].startsWith("-"))
+					valid = false;
+				else
+					signatures.add(args[arg].toUpperCase());
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			valid = false;
+		}
+		if (!valid || signatures.isEmpty() || threads < 1 || memory < 1)
+		{
+			System.out.println("Usage: java TablebaseGenerator [-dir D] "
+					+ "[-threads N] [-memory MB] SIGNATURE...");
+			return;
+		}
+
+		TablebaseGenerator generator = new TablebaseGenerator(new File(
+				directory), threads, memory << 20);
+		for (String signature : signatures)
+			generator.generate(signature);
+	}
+
+	/**
+	 * Generates the table of a signature and the tables of every signature
+	 * that a capture can lead to, skipping the tables that already exist.
+	 * @param signature the signature, such as KRKAABB
+	 * @throws IOException if a table cannot be written
+	 * @throws InterruptedException if the generator is interrupted
+	 */
+	public void generate(String signature) throws IOException,
+			InterruptedException
+	{
+		Tablebase.Table layout = new Tablebase.Table(signature);
+		if (tablebase.getTable(layout.materialKey) != null)
+			return;
+
+		// Every capture leaves the same pieces less the captured one
+		int noOfPieces = layout.codes.length;
+		int[] codes = new int[noOfPieces];
+		for (int captured = 0; captured < noOfPieces; captured++)
+			if (Position.type(layout.codes[captured]) != Position.GENERAL)
+			{
+				int count = 0;
+				for (int piece = 0; piece < noOfPieces; piece++)
+					if (piece != captured)
+						codes[count++] = layout.codes[piece];
+				generate(Tablebase.toSignature(codes, count));
+			}
+
+		long start = System.currentTimeMillis();
+		long[] counts = build(layout);
+		File file = new File(directory, signature + Tablebase.EXTENSION);
+		write(file);
+		tablebase.add(file);
+		System.out.printf("%s: %d positions, %d won, %d lost in %.1f s%n",
+				signature, layout.size, counts[0], counts[1],
+				(System.currentTimeMillis() - start) / 1000.0);
+	}
+
+	/**
+	 * Works out the value of every position of a table.
+	 * @param layout the layout of the table
+	 * @return the number of positions won and lost by the side to move
+	 * @throws InterruptedException if the generator is interrupted
+	 */
+	private long[] build(Tablebase.Table layout) throws InterruptedException
+	{
+		if (layout.size > Integer.MAX_VALUE - Tablebase.HEADER_SIZE
+				|| layout.size * BYTES_PER_POSITION > memoryLimit)
+			throw new IllegalArgumentException(layout.signature + " needs "
+					+ (layout.size * BYTES_PER_POSITION >> 20)
+					+ " MB, which is over the memory limit of "
+					+ (memoryLimit >> 20) + " MB");
+
+		table = layout;
+		int noOfPieces = layout.codes.length;
+		captureTables = new Tablebase.Table[noOfPieces];
+		int[] codes = new int[noOfPieces];
+		for (int captured = 0; captured < noOfPieces; captured++)
+		{
+			if (Position.type(layout.codes[captured]) == Position.GENERAL)
+				continue;
+			int count = 0;
+			for (int piece = 0; piece < noOfPieces; piece++)
+				if (piece != captured)
+					codes[count++] = layout.codes[piece];
+			captureTables[captured] = tablebase.getTable(new Tablebase.Table(
+					Tablebase.toSignature(codes, count)).materialKey);
+		}
+
+		int size = (int) layout.size;
+		values = new byte[size];
+		candidates = new byte[size];
+		nextCandidates = new byte[size];
+		waiting = new byte[size];
+
+		Worker[] workers = new Worker[threads];
+		for (int worker = 0; worker < threads; worker++)
+			workers[worker] = new Worker();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try
+		{
+			// Decide the positions with no moves first, then one distance a
+			// round until nothing is decided or waiting
+			for (int distance = 0; distance <= Tablebase.MAX_DISTANCE; distance++)
+			{
+				byte[] marked = nextCandidates;
+				nextCandidates = candidates;
+				candidates = marked;
+				Arrays.fill(nextCandidates, (byte) 0);
+
+				long[] round = runRound(pool, workers, distance, distance == 0);
+				if (round[0] == 0 && round[1] == 0)
+					break;
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		long[] counts = new long[2];
+		for (byte value : values)
+			if (value != 0)
+				counts[(value & 0xFF) % 2]++;
+		candidates = nextCandidates = waiting = null;
+		return counts;
+	}
+
+	/**
+	 * Looks at the positions of one round on all of the threads.
+	 * @param pool the thread pool
+	 * @param workers a Worker for each thread
+	 * @param distance the distance of the positions decided in this round
+	 * @param allPositions true to look at every position
+	 * @return the number of positions decided and still waiting on a capture
+	 * @throws InterruptedException if the generator is interrupted
+	 */
+	private long[] runRound(ExecutorService pool, Worker[] workers,
+			int distance, boolean allPositions) throws InterruptedException
+	{
+		AtomicInteger nextChunk = new AtomicInteger();
+		List<Future<long[]>> results = new ArrayList<Future<long[]>>();
+		for (Worker worker : workers)
+		{
+			worker.distance = distance;
+			worker.allPositions = allPositions;
+			worker.nextChunk = nextChunk;
+			results.add(pool.submit(worker));
+		}
+
+		long[] round = new long[2];
+		for (Future<long[]> result : results)
+		{
+			try
+			{
+				long[] counts = result.get();
+				round[0] += counts[0];
+				round[1] += counts[1];
+			}
+			catch (ExecutionException e)
+			{
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		return round;
+	}
+
+	/**
+	 * Writes the values of the table that was just generated to a file.
+	 * @param file the table file
+	 * @throws IOException if the file cannot be written
+	 */
+	private void write(File file) throws IOException
+	{
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try
+		{
+			out.writeInt(Tablebase.MAGIC);
+			out.writeInt(Tablebase.VERSION);
+			out.writeLong(values.length);
+			out.write(values);
+		}
+		finally
+		{
+			out.close();
+		}
+		values = null;
+	}
+}
@@ -0,0 +1,712 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays a match between two engines without a window to find out whether a
+ * change makes the AI stronger. Games are played in parallel, one game at a
+ * time on each worker thread, from a set of opening positions. Each opening
+ * is played twice with the colours swapped. Every move is searched with the
+ * same fixed depth, node or time budget. A game ends when the side to move
+ * has no moves (a loss), when a position comes up for the third time or
+ * after too many moves (a draw). The Elo difference is reported with its 95%
+ * error bars, and the match stops early once the sequential probability
+ * ratio test accepts either hypothesis (that the first engine is elo0 or
+ * elo1 stronger). An engine is "internal" (a Computer in this process) with
+ * optional settings such as "internal:nmp=off,lmr=off,hash=32", or the
+ * command line of a UCCI engine such as "java -cp old UcciEngine". Run with:
+ * java Tournament ENGINE1 ENGINE2 [-games N] [-threads N] [-depth N | -nodes N
+ * | -movetime MS] [-openings FILE] [-sprt ELO0 ELO1 ALPHA BETA]
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class Tournament
+{
+	// Defaults for the match settings
+	public static final int DEFAULT_GAMES = 20000;
+	public static final long DEFAULT_NODES = 20000;
+	public static final double DEFAULT_ELO0 = 0;
+	public static final double DEFAULT_ELO1 = 5;
+	public static final double DEFAULT_ALPHA = 0.05;
+	public static final double DEFAULT_BETA = 0.05;
+
+	// Number of moves (plies) after which a game is a draw, the number of
+	// times a position has to come up for a draw by repetition and the number
+	// of games between progress reports
+	private static final int MAX_PLIES = 300;
+	private static final int REPETITIONS = 3;
+	private static final int REPORT_INTERVAL = 100;
+
+	// Seed for shuffling the default openings so that every match plays them
+	// in the same order
+	private static final long OPENING_SEED = 20151220;
+
+	// Results of a game for the first engine
+	private static final int LOSS = 0;
+	private static final int DRAW = 1;
+	private static final int WIN = 2;
+
+	// The engines, the openings and the budget of each move
+	private final String[] engineSpecs;
+	private final List<String> openings;
+	private final int depth;
+	private final long nodes;
+	private final long moveTime;
+
+	// SPRT bounds and hypotheses
+	private final double elo0;
+	private final double elo1;
+	private final double lowerBound;
+	private final double upperBound;
+
+	// Shared results: games started, wins, draws and losses of the first
+	// engine, and the time and number of moves each engine took
+	private final AtomicInteger nextGame;
+	private final int maxGames;
+	private final int[] results;
+	private final long[] thinkingTime;
+	private final long[] movesMade;
+	private volatile boolean finished;
+
+	/**
+	 * Constructs a new Tournament.
+	 * @param engineSpecs the specifications of the two engines
+	 * @param openings the FEN or ICCS moves of each opening position
+	 * @param maxGames the number of games to play if the SPRT does not stop
+	 *            the match first
+	 * @param depth the depth of each search
+	 * @param nodes the number of nodes of each search (0 for no limit)
+	 * @param moveTime the time of each search in milliseconds (0 for no
+	 *            limit)
+	 * @param sprt the SPRT's elo0, elo1, alpha and beta
+	 */
+	public Tournament(String[] engineSpecs, List<String> openings,
+			int maxGames, int depth, long nodes, long moveTime, double[] sprt)
+	{
+		if (openings.isEmpty())
+			throw new IllegalArgumentException("There are no openings");
+		this.engineSpecs = engineSpecs;
+		this.openings = openings;
+		this.maxGames = maxGames;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.moveTime = moveTime;
+		elo0 = sprt[0];
+		elo1 = sprt[1];
+		lowerBound = Math.log(sprt[3] / (1 - sprt[2]));
+		upperBound = Math.log((1 - sprt[3]) / sprt[2]);
+		nextGame = new AtomicInteger();
+		results = new int[3];
+		thinkingTime = new long[2];
+		movesMade = new long[2];
+	}
+
+	/**
+	 * Runs the match.
+	 * @param args the two engines followed by the options
+	 * @throws IOException if the openings cannot be read
+	 * @throws InterruptedException if interrupted while waiting for games
+	 */
+	public static void main(String[] args) throws IOException,
+			InterruptedException
+	{
+		int games = DEFAULT_GAMES;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int depth = Searcher.MAX_PLY - 1;
+		long nodes = 0;
+		long moveTime = 0;
+		String openingsFile = null;
+		double[] sprt = { DEFAULT_ELO0, DEFAULT_ELO1, DEFAULT_ALPHA,
+				DEFAULT_BETA };
+		boolean valid = args.length >= 2 && isEngine(args[0])
+				&& isEngine(args[1]);
+		try
+		{
+			for (int arg = 2; arg < args.length && valid; arg++)
+			{
+				if (args[arg].equals("-games") && arg + 1 < args.length)
+					games = Integer.parseInt(args[++arg]);
+				else if (args[arg].equals("-threads") && arg + 1 < args.length)
+					threads = Integer.parseInt(args[++arg]);
+				else if (args[arg].equals("-depth") && arg + 1 < args.length)
+					depth = Integer.parseInt(args[++arg]);
+				else if (args[arg].equals("-nodes") && arg + 1 < args.length)
+					nodes = Long.parseLong(args[++arg]);
+				else if (args[arg].equals("-movetime")
+						&& arg + 1 < args.length)
+					moveTime = Long.parseLong(args[++arg]);
+				else if (args[arg].equals("-openings")
+						&& arg + 1 < args.length)
+					openingsFile = args[++arg];
+				else if (args[arg].equals("-sprt")
+						&& arg + sprt.length < args.length)
+					for (int value = 0; value < sprt.length; value++)
+						sprt[value] = Double.parseDouble(args[++arg]);
+				else
+					valid = false;
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			valid = false;
+		}
+		if (!valid || games < 1 || threads < 1 || depth < 1
+				|| depth >= Searcher.MAX_PLY || nodes < 0 || moveTime < 0
+				|| !(sprt[0] < sprt[1]) || !(sprt[2] > 0 && sprt[2] < 1)
+				|| !(sprt[3] > 0 && sprt[3] < 1))
+		{
+			System.out.println("Usage: java Tournament ENGINE1 ENGINE2 "
+					+ "[-games N] [-threads N] [-depth N | -nodes N | "
+					+ "-movetime MS] [-openings FILE] "
+					+ "[-sprt ELO0 ELO1 ALPHA BETA]");
+			return;
+		}
+		if (depth == Searcher.MAX_PLY - 1 && nodes == 0 && moveTime == 0)
+			nodes = DEFAULT_NODES;
+
+		List<String> openings = openingsFile == null ? defaultOpenings()
+				: readOpenings(new File(openingsFile));
+		Tournament tournament = new Tournament(new String[] { args[0],
+				args[1] }, openings, games, depth, nodes, moveTime, sprt);
+		System.out.printf("%s vs %s: %d openings, %d threads%n", args[0],
+				args[1], openings.size(), threads);
+		tournament.run(threads);
+		tournament.report(System.out);
+	}
+
+	/**
+	 * Checks whether an argument can be an engine: "internal" with its
+	 * settings or a command line, but not blank and not an option.
+	 * @param spec the argument
+	 * @return true if it can be an engine
+	 */
+	private static boolean isEngine(String spec)
+	{
+		return !spec.trim().isEmpty() && !spec.startsWith("-");
+	}
+
+	/**
+	 * Reads the opening positions from a file, one per line, either as a FEN
+	 * or as ICCS moves from the starting position. Lines starting with # are
+	 * comments.
+	 * @param file the openings file
+	 * @return the openings
+	 * @throws IOException if the file cannot be read
+	 */
+	public static List<String> readOpenings(File file) throws IOException
+	{
+		List<String> openings = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try
+		{
+			String line;
+			while ((line = in.readLine()) != null)
+				if (!line.trim().isEmpty() && !line.startsWith("#"))
+					openings.add(line.trim());
+		}
+		finally
+		{
+			in.close();
+		}
+		return openings;
+	}
+
+	/**
+	 * Makes the default openings: every pair of first moves by red and black,
+	 * shuffled.
+	 * @return the openings as ICCS moves
+	 */
+	public static List<String> defaultOpenings()
+	{
+		List<String> openings = new ArrayList<String>();
+		Position position = new Position(Position.START_FEN);
+		int[] redMoves = new int[Position.MAX_MOVES];
+		int[] blackMoves = new int[Position.MAX_MOVES];
+		int noOfRedMoves = position.generateMoves(redMoves);
+		for (int red = 0; red < noOfRedMoves; red++)
+		{
+			position.makeMove(redMoves[red]);
+			int noOfBlackMoves = position.generateMoves(blackMoves);
+			for (int black = 0; black < noOfBlackMoves; black++)
+				openings.add(Position.toIccs(redMoves[red]) + " "
+						+ Position.toIccs(blackMoves[black]));
+			position.unmakeMove(redMoves[red]);
+		}
+		Collections.shuffle(openings, new Random(OPENING_SEED));
+		return openings;
+	}
+
+	/**
+	 * Plays games on the given number of worker threads until the maximum
+	 * number of games is reached or the SPRT stops the match.
+	 * @param threads the number of worker threads
+	 * @throws InterruptedException if interrupted while waiting for games
+	 */
+	public void run(int threads) throws InterruptedException
+	{
+		Thread[] workers = new Thread[threads];
+		for (int worker = 0; worker < threads; worker++)
+		{
+			workers[worker] = new Thread(new Runnable()
+			{
+				public void run()
+				{
+					playGames();
+				}
+			}, "Tournament worker " + worker);
+			workers[worker].start();
+		}
+		for (Thread worker : workers)
+			worker.join();
+	}
+
+	/**
+	 * Plays games on the current thread with its own pair of engines until
+	 * the match is over.
+	 */
+	private void playGames()
+	{
+		MatchEngine[] engines = new MatchEngine[2];
+		try
+		{
+			for (int engine = 0; engine < 2; engine++)
+				engines[engine] = createEngine(engineSpecs[engine]);
+
+			int game;
+			while (!finished && (game = nextGame.getAndIncrement()) < maxGames)
+			{
+				// Both games of an opening come one after the other, with the
+				// first engine playing red in the even game
+				String opening = openings.get(game / 2 % openings.size());
+				int firstColour = game % 2 == 0 ? Piece.RED : Piece.BLACK;
+				addResult(playGame(engines, opening, firstColour));
+			}
+		}
+		catch (IOException e)
+		{
+			System.err.println("Could not run engine: " + e.getMessage());
+			finished = true;
+		}
+		finally
+		{
+			for (MatchEngine engine : engines)
+				if (engine != null)
+					engine.close();
+		}
+	}
+
+	/**
+	 * Plays one game.
+	 * @param engines the two engines
+	 * @param opening the FEN or ICCS moves of the opening position
+	 * @param firstColour the colour played by the first engine
+	 * @return the result of the first engine: WIN, DRAW or LOSS
+	 * @throws IOException if an external engine stops working
+	 */
+	private int playGame(MatchEngine[] engines, String opening,
+			int firstColour) throws IOException
+	{
+		Position position;
+		if (opening.contains("/"))
+			position = new Position(opening);
+		else
+		{
+			position = new Position(Position.START_FEN);
+			for (String iccs : opening.split("\\s+"))
+			{
+				int move = position.findMove(iccs);
+				if (move == 0)
+					throw new IllegalArgumentException("Illegal move " + iccs
+							+ " in opening " + opening);
+				position.makeMove(move);
+			}
+		}
+		String startFen = position.toFen();
+		position = new Position(startFen);
+
+		for (MatchEngine engine : engines)
+			engine.newGame();
+		List<String> moves = new ArrayList<String>();
+		Map<Long, Integer> seen = new HashMap<Long, Integer>();
+		seen.put(position.getKey(), 1);
+		int[] legalMoves = new int[Position.MAX_MOVES];
+		while (moves.size() < MAX_PLIES)
+		{
+			int side = position.getSideToMove();
+			int engine = side == firstColour ? 0 : 1;
+			if (position.generateMoves(legalMoves) == 0)
+				return engine == 0 ? LOSS : WIN;
+
+			long start = System.nanoTime();
+			int move = position.findMove(engines[engine].bestMove(startFen,
+					moves, position));
+			long time = System.nanoTime() - start;
+			synchronized (this)
+			{
+				thinkingTime[engine] += time;
+				movesMade[engine]++;
+			}
+
+			// An engine that gives up or plays an illegal move loses
+			if (move == 0)
+				return engine == 0 ? LOSS : WIN;
+			position.makeMove(move);
+			moves.add(Position.toIccs(move));
+
+			Integer count = seen.get(position.getKey());
+			count = count == null ? 1 : count + 1;
+			if (count >= REPETITIONS)
+				return DRAW;
+			seen.put(position.getKey(), count);
+		}
+		return DRAW;
+	}
+
+	/**
+	 * Records the result of a game, reports the progress and stops the match
+	 * once the SPRT accepts a hypothesis.
+	 * @param result the result of the first engine
+	 */
+	private synchronized void addResult(int result)
+	{
+		results[result]++;
+		int games = results[WIN] + results[DRAW] + results[LOSS];
+		if (games % REPORT_INTERVAL == 0)
+			report(System.out);
+		double llr = getLogLikelihoodRatio();
+		if (llr <= lowerBound || llr >= upperBound)
+			finished = true;
+	}
+
+	/**
+	 * Prints the results so far: the wins, draws and losses of the first
+	 * engine, the Elo difference with its 95% error bars, the SPRT's log
+	 * likelihood ratio and the average time per move of each engine.
+	 * @param out the stream to print to
+	 */
+	public synchronized void report(PrintStream out)
+	{
+		int games = results[WIN] + results[DRAW] + results[LOSS];
+		double llr = getLogLikelihoodRatio();
+		String verdict = "";
+		if (llr >= upperBound)
+			verdict = " H1 accepted";
+		else if (llr <= lowerBound)
+			verdict = " H0 accepted";
+
+		out.printf("Games: %d  W: %d  L: %d  D: %d  Elo: %.1f +/- %.1f  "
+				+ "LLR: %.2f (%.2f, %.2f) [%.1f, %.1f]%s%n", games,
+				results[WIN], results[LOSS], results[DRAW], getElo(),
+				getEloError(), llr, lowerBound, upperBound, elo0, elo1,
+				verdict);
+		for (int engine = 0; engine < 2; engine++)
+			out.printf("  %s: %.1f ms/move%n", engineSpecs[engine],
+					movesMade[engine] == 0 ? 0 : thinkingTime[engine] / 1e6
+							/ movesMade[engine]);
+	}
+
+	/**
+	 * Gets the Elo difference of the first engine over the second.
+	 * @return the Elo difference
+	 */
+	public synchronized double getElo()
+	{
+		return toElo(getScore());
+	}
+
+	/**
+	 * Gets half the width of the 95% confidence interval of the Elo
+	 * difference.
+	 * @return the error bar in Elo
+	 */
+	public synchronized double getEloError()
+	{
+		int games = results[WIN] + results[DRAW] + results[LOSS];
+		if (games == 0)
+			return 0;
+		double score = getScore();
+		double error = 1.96 * Math.sqrt(getVariance() / games);
+		return (toElo(score + error) - toElo(score - error)) / 2;
+	}
+
+	/**
+	 * Gets the log likelihood ratio of H1 (the first engine is elo1 stronger)
+	 * over H0 (it is elo0 stronger). This uses the normal approximation of
+	 * the generalized SPRT on the trinomial game results.
+	 * @return the log likelihood ratio
+	 */
+	public synchronized double getLogLikelihoodRatio()
+	{
+		int games = results[WIN] + results[DRAW] + results[LOSS];
+		double variance = getVariance();
+		if (games == 0 || variance == 0)
+			return 0;
+		double score0 = toScore(elo0);
+		double score1 = toScore(elo1);
+		return (score1 - score0) * (2 * getScore() - score0 - score1) * games
+				/ (2 * variance);
+	}
+
+	/**
+	 * Gets the average score per game of the first engine.
+	 * @return the score between 0 and 1
+	 */
+	private double getScore()
+	{
+		int games = results[WIN] + results[DRAW] + results[LOSS];
+		if (games == 0)
+			return 0.5;
+		return (results[WIN] + results[DRAW] / 2.0) / games;
+	}
+
+	/**
+	 * Gets the variance of the score of a single game.
+	 * @return the variance
+	 */
+	private double getVariance()
+	{
+		int games = results[WIN] + results[DRAW] + results[LOSS];
+		if (games == 0)
+			return 0;
+		double score = getScore();
+		return (results[WIN] * (1 - score) * (1 - score) + results[DRAW]
+				* (0.5 - score) * (0.5 - score) + results[LOSS] * score * score)
+				/ games;
+	}
+
+	/**
+	 * Converts an average score to an Elo difference.
+	 * @param score the score between 0 and 1
+	 * @return the Elo difference
+	 */
+	private static double toElo(double score)
+	{
+		// Keep a perfect score finite
+		score = Math.max(1e-6, Math.min(1 - 1e-6, score));
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	/**
+	 * Converts an Elo difference to the expected average score.
+	 * @param elo the Elo difference
+	 * @return the score between 0 and 1
+	 */
+	private static double toScore(double elo)
+	{
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+	/**
+	 * Creates an engine from its specification.
+	 * @param spec "internal", optionally followed by ":" and comma separated
+	 *            settings, or the command line of a UCCI engine
+	 * @return the engine
+	 * @throws IOException if the engine cannot be started
+	 */
+	private MatchEngine createEngine(String spec) throws IOException
+	{
+		if (spec.equals("internal") || spec.startsWith("internal:"))
+			return new InternalEngine(spec.substring("internal".length()));
+		return new UcciProcess(spec);
+	}
+
+	/**
+	 * An engine taking part in a match.
+	 */
+	private interface MatchEngine
+	{
+		/**
+		 * Gets ready for a new game.
+		 * @throws IOException if the engine stops working
+		 */
+		void newGame() throws IOException;
+
+		/**
+		 * Finds the best move of a game.
+		 * @param startFen the FEN of the position the game started from
+		 * @param moves the ICCS moves made since
+		 * @param position the current position (left unchanged)
+		 * @return the ICCS move or an empty string if there is none
+		 * @throws IOException if the engine stops working
+		 */
+		String bestMove(String startFen, List<String> moves, Position position)
+				throws IOException;
+
+		/**
+		 * Shuts the engine down.
+		 */
+		void close();
+	}
+
+	/**
+	 * A Computer in this process.
+	 */
+	private class InternalEngine implements MatchEngine
+	{
+		private final Computer computer;
+
+		/**
+		 * Constructs a new InternalEngine with its Computer, which is kept
+		 * for all of its games.
+		 * @param settings ":" followed by comma separated settings such as
+		 *            "nmp=off", "lmr=off", "checks=on", "level=N" (the node
+		 *            budget of a difficulty level), "nodes=N", "hash=MB",
+		 *            "threads=N", "book=FILE" and "egtb=DIRECTORY", or an
+		 *            empty string
+		 * @throws IOException if the book or tablebases cannot be opened
+		 */
+		public InternalEngine(String settings) throws IOException
+		{
+			computer = new Computer(Piece.RED, depth, moveTime);
+			computer.setNodeLimit(nodes);
+			if (settings.isEmpty())
+				return;
+			for (String setting : settings.substring(1).split(","))
+			{
+				String[] parts = setting.split("=", 2);
+				String value = parts.length > 1 ? parts[1] : "on";
+				boolean on = !value.equals("off");
+				if (parts[0].equals("nmp"))
+					computer.setNullMovePruning(on);
+				else if (parts[0].equals("lmr"))
+					computer.setLateMoveReductions(on);
+				else if (parts[0].equals("checks"))
+					computer.setCheckEvasions(on);
+				else if (parts[0].equals("level"))
+					computer.setNodeLimit(Computer.getLevelNodes(Integer
+							.parseInt(value)));
+				else if (parts[0].equals("nodes"))
+					computer.setNodeLimit(Long.parseLong(value));
+				else if (parts[0].equals("hash"))
+					computer.setHashSize(Integer.parseInt(value));
+				else if (parts[0].equals("threads"))
+					computer.setThreads(Integer.parseInt(value));
+				else if (parts[0].equals("book"))
+					computer.setOpeningBook(OpeningBook.open(new File(value)));
+				else if (parts[0].equals("egtb"))
+					computer.setTablebase(Tablebase.open(new File(value)));
+				else
+					throw new IllegalArgumentException("Unknown setting: "
+							+ parts[0]);
+			}
+		}
+
+		/**
+		 * Clears the transposition table so that nothing is left from the
+		 * last game (the killer moves and history are cleared by every
+		 * search).
+		 */
+		public void newGame()
+		{
+			computer.getTranspositionTable().clear();
+		}
+
+		public String bestMove(String startFen, List<String> moves,
+				Position position)
+		{
+			int move = computer.bestMove(position, false);
+			return move == 0 ? "" : Position.toIccs(move);
+		}
+
+		public void close()
+		{
+		}
+	}
+
+	/**
+	 * A UCCI engine in another process, such as an older build of
+	 * UcciEngine.
+	 */
+	private class UcciProcess implements MatchEngine
+	{
+		private final Process process;
+		private final BufferedReader in;
+		private final PrintStream out;
+
+		/**
+		 * Starts the engine and waits for it to be ready.
+		 * @param command the command line of the engine
+		 * @throws IOException if the engine cannot be started
+		 */
+		public UcciProcess(String command) throws IOException
+		{
+			process = new ProcessBuilder(command.trim().split("\\s+"))
+					.redirectErrorStream(true).start();
+			in = new BufferedReader(new InputStreamReader(process
+					.getInputStream()));
+			out = new PrintStream(process.getOutputStream(), true);
+			out.println("ucci");
+			waitFor("ucciok");
+			out.println("setoption usemillisec true");
+		}
+
+		public void newGame() throws IOException
+		{
+			out.println("setoption newgame");
+			out.println("isready");
+			waitFor("readyok");
+		}
+
+		public String bestMove(String startFen, List<String> moves,
+				Position position) throws IOException
+		{
+			StringBuilder command = new StringBuilder("position fen ")
+					.append(startFen);
+			if (!moves.isEmpty())
+			{
+				command.append(" moves");
+				for (String move : moves)
+					command.append(' ').append(move);
+			}
+			out.println(command);
+
+			// UCCI has no fixed time per move, so give all of the time to
+			// this move
+			if (moveTime > 0)
+				out.println("go time " + moveTime + " movestogo 1");
+			else if (nodes > 0)
+				out.println("go nodes " + nodes);
+			else
+				out.println("go depth " + depth);
+
+			String line = waitFor("bestmove", "nobestmove");
+			String[] words = line.split("\\s+");
+			return words[0].equals("bestmove") && words.length > 1 ? words[1]
+					: "";
+		}
+
+		/**
+		 * Reads lines from the engine until one starts with one of the given
+		 * words.
+		 * @param words the words
+		 * @return the line
+		 * @throws IOException if the engine quits first
+		 */
+		private String waitFor(String... words) throws IOException
+		{
+			String line;
+			while ((line = in.readLine()) != null)
+				for (String word : words)
+					if (line.startsWith(word))
+						return line;
+			throw new IOException("Engine quit while waiting for " + words[0]);
+		}
+
+		public void close()
+		{
+			out.println("quit");
+			process.destroy();
+		}
+	}
+}
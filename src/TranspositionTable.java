@@ -0,0 +1,261 @@
+import java.util.Arrays;
+
+/**
+ * Keeps track of a fixed-size transposition table for the AI's search. Each
+ * entry stores the Zobrist key of a position along with the depth it was
+ * searched to, the type of bound, the score and the best move. Entries are
+ * grouped into buckets of two: the first slot keeps the deepest entry while
+ * the second slot is always replaced. Keeps track of probes and hits so that
+ * the hit and miss rates can be checked.
+ * 
+ * The table can be shared by several search threads without locks. Each key
+ * is stored XORed with its data word, so an entry torn by two threads writing
+ * at once no longer matches its key and is treated as a miss. The statistics
+ * are not synchronized and are only approximate when the table is shared.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class TranspositionTable
+{
+	// Types of bounds that a score can be
+	public static final int EXACT = 0;
+	public static final int LOWER = 1;
+	public static final int UPPER = 2;
+
+	// Default number of entries and the size of an entry in bytes
+	public static final int DEFAULT_SIZE = 1 << 20;
+	public static final int ENTRY_SIZE = 16;
+
+	// Bit layout of the data word: move (22), score (20), depth (8), bound
+	// (2) and age (8)
+	private static final int SCORE_SHIFT = 22;
+	private static final int DEPTH_SHIFT = 42;
+	private static final int BOUND_SHIFT = 50;
+	private static final int AGE_SHIFT = 52;
+	private static final int SCORE_OFFSET = 1 << 19;
+
+	// The keys (XORed with their data words) and data words of the entries
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	private int age;
+
+	// Statistics
+	private long probes, hits, stores;
+
+	/**
+	 * Constructs a new TranspositionTable with the given number of entries.
+	 * @param size the number of entries (must be a power of two)
+	 */
+	public TranspositionTable(int size)
+	{
+		if (size < 2 || Integer.bitCount(size) != 1)
+			throw new IllegalArgumentException("Size must be a power of two: "
+					+ size);
+
+		keys = new long[size];
+		data = new long[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Starts a new search so that entries from older searches get replaced
+	 * first.
+	 */
+	public void newSearch()
+	{
+		age = (age + 1) & 0xFF;
+	}
+
+	/**
+	 * Clears all of the entries and statistics.
+	 */
+	public void clear()
+	{
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, 0);
+		probes = hits = stores = 0;
+	}
+
+	/**
+	 * Looks for the entry of the given position.
+	 * @param key the Zobrist key of the position
+	 * @return the data word of the entry or 0 if it is not in the table
+	 */
+	public long probe(long key)
+	{
+		probes++;
+		int index = (int) key & mask & ~1;
+		for (int slot = index; slot <= index + 1; slot++)
+		{
+			// Read the data word once so that the check and the result match
+			long entry = data[slot];
+			if (entry != 0 && (keys[slot] ^ entry) == key)
+			{
+				hits++;
+				return entry;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Stores the result of a search in the table.
+	 * @param key the Zobrist key of the position
+	 * @param depth the depth that was searched
+	 * @param bound the type of bound the score is (EXACT, LOWER or UPPER)
+	 * @param score the score of the position
+	 * @param move the best move found (0 if none)
+	 */
+	public void store(long key, int depth, int bound, int score, int move)
+	{
+		// Scores that do not fit in an entry (the infinite window) are not
+		// worth keeping
+		if (score <= -SCORE_OFFSET || score >= SCORE_OFFSET)
+			return;
+
+		stores++;
+		int index = (int) key & mask & ~1;
+		long entry = (long) move | (long) (score + SCORE_OFFSET) << SCORE_SHIFT
+				| (long) depth << DEPTH_SHIFT | (long) bound << BOUND_SHIFT
+				| (long) age << AGE_SHIFT;
+
+		// Update the entry of the same position if there already is one
+		long deepest = data[index];
+		long deepestKey = keys[index] ^ deepest;
+		long other = data[index + 1];
+		int slot;
+		long old;
+		if (deepestKey == key)
+		{
+			slot = index;
+			old = deepest;
+		}
+		else if ((keys[index + 1] ^ other) == key)
+		{
+			slot = index + 1;
+			old = other;
+		}
+		// Replace the deepest slot if it is old or shallower than this entry
+		else if (getAge(deepest) != age || getDepth(deepest) <= depth)
+		{
+			// Keep the old entry around in the always replace slot
+			keys[index + 1] = deepestKey ^ deepest;
+			data[index + 1] = deepest;
+			slot = index;
+			old = 0;
+		}
+		else
+		{
+			slot = index + 1;
+			old = 0;
+		}
+
+		// Keep the old best move if this search did not find one
+		if (move == 0)
+			entry |= getMove(old);
+
+		keys[slot] = key ^ entry;
+		data[slot] = entry;
+	}
+
+	/**
+	 * Gets the best move of an entry.
+	 * @param entry the data word of the entry
+	 * @return the packed move or 0 if there is none
+	 */
+	public static int getMove(long entry)
+	{
+		return (int) (entry & 0x3FFFFF);
+	}
+
+	/**
+	 * Gets the score of an entry.
+	 * @param entry the data word of the entry
+	 * @return the score
+	 */
+	public static int getScore(long entry)
+	{
+		return (int) (entry >>> SCORE_SHIFT & 0xFFFFF) - SCORE_OFFSET;
+	}
+
+	/**
+	 * Gets the depth of an entry.
+	 * @param entry the data word of the entry
+	 * @return the depth the entry was searched to
+	 */
+	public static int getDepth(long entry)
+	{
+		return (int) (entry >>> DEPTH_SHIFT & 0xFF);
+	}
+
+	/**
+	 * Gets the type of bound of an entry.
+	 * @param entry the data word of the entry
+	 * @return EXACT, LOWER or UPPER
+	 */
+	public static int getBound(long entry)
+	{
+		return (int) (entry >>> BOUND_SHIFT & 0x3);
+	}
+
+	/**
+	 * Gets the age of an entry.
+	 * @param entry the data word of the entry
+	 * @return the age of the search that stored the entry
+	 */
+	private static int getAge(long entry)
+	{
+		return (int) (entry >>> AGE_SHIFT & 0xFF);
+	}
+
+	/**
+	 * Gets the number of times the table was probed.
+	 * @return the number of probes
+	 */
+	public long getProbes()
+	{
+		return probes;
+	}
+
+	/**
+	 * Gets the number of probes that found their position.
+	 * @return the number of hits
+	 */
+	public long getHits()
+	{
+		return hits;
+	}
+
+	/**
+	 * Gets the number of entries stored.
+	 * @return the number of stores
+	 */
+	public long getStores()
+	{
+		return stores;
+	}
+
+	/**
+	 * Gets the fraction of probes that found their position.
+	 * @return the hit rate between 0 and 1
+	 */
+	public double getHitRate()
+	{
+		if (probes == 0)
+			return 0;
+		return (double) hits / probes;
+	}
+
+	/**
+	 * Gets the fraction of probes that did not find their position.
+	 * @return the miss rate between 0 and 1
+	 */
+	public double getMissRate()
+	{
+		if (probes == 0)
+			return 0;
+		return 1 - getHitRate();
+	}
+}
@@ -0,0 +1,433 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the Computer without a window and talks to a GUI or a match script
+ * over standard input and output with the UCCI protocol. Supports position
+ * set up (startpos or fen, followed by moves), go with depth, nodes, time
+ * (with movestogo or increment), movetime and infinite limits, pondering,
+ * stop and the usual options. Each completed iteration is reported as an info
+ * line with the depth, score, time, nodes, nodes per second and principal
+ * variation. Run with: java UcciEngine
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class UcciEngine
+{
+	// Engine name and author reported to the GUI
+	private static final String NAME = "Chinese Chess AI";
+	private static final String AUTHOR = "Derrick Thai and Riddle Li";
+
+	// Moves to plan for when the GUI does not say and the time kept back for
+	// the GUI in milliseconds
+	private static final int DEFAULT_MOVES_TO_GO = 30;
+	private static final long TIME_MARGIN = 50;
+
+	// The streams, the Computer and the position to search
+	private final BufferedReader in;
+	private final PrintStream out;
+	private final Computer computer;
+	private Position position;
+
+	// Options
+	private boolean useMilliseconds;
+	private boolean randomness;
+
+	// The thread of the running search (null if none) and its abort flag,
+	// and while pondering, the time limit to use once the opponent plays the
+	// expected move and the latch that holds back the best move until then
+	private volatile Thread search;
+	private AtomicBoolean searchAbort;
+	private long ponderTimeLimit;
+	private CountDownLatch ponderLatch;
+	private final Timer clock;
+
+	/**
+	 * Constructs a new UcciEngine on the given streams.
+	 * @param in the stream to read commands from
+	 * @param out the stream to write replies to
+	 */
+	public UcciEngine(InputStream in, PrintStream out)
+	{
+		this.in = new BufferedReader(new InputStreamReader(in));
+		this.out = out;
+		computer = new Computer(Piece.RED, Searcher.MAX_PLY - 1);
+		position = new Position(Position.START_FEN);
+		clock = new Timer("UCCI clock", true);
+	}
+
+	/**
+	 * Runs the engine on standard input and output.
+	 * @param args not used
+	 * @throws IOException if standard input cannot be read
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		new UcciEngine(System.in, System.out).run();
+	}
+
+	/**
+	 * Reads and carries out commands until quit or the end of the input.
+	 * @throws IOException if the input cannot be read
+	 */
+	public void run() throws IOException
+	{
+		String line;
+		while ((line = in.readLine()) != null)
+			if (!handle(line.trim()))
+				break;
+		stopSearch();
+		clock.cancel();
+	}
+
+	/**
+	 * Carries out one command.
+	 * @param line the command line
+	 * @return false if the engine has to quit
+	 */
+	public boolean handle(String line)
+	{
+		String[] words = line.split("\\s+");
+		String command = words[0];
+		if (command.equals("ucci"))
+		{
+			send("id name " + NAME);
+			send("id author " + AUTHOR);
+			send("option usemillisec type check default false");
+			send("option hashsize type spin min 1 max 4096 default 16");
+			send("option threads type spin min 1 max 256 default 1");
+			send("option bookfiles type string default <empty>");
+			send("option egtbpaths type string default <empty>");
+			send("option pruning type combo var none var large "
+					+ "default large");
+			send("option randomness type combo var none var small "
+					+ "default none");
+			send("option newgame type button");
+			send("ucciok");
+		}
+		else if (command.equals("isready"))
+			send("readyok");
+		else if (command.equals("setoption"))
+			setOption(words);
+		else if (command.equals("position"))
+		{
+			stopSearch();
+			setPosition(words);
+		}
+		else if (command.equals("go"))
+		{
+			stopSearch();
+			go(words);
+		}
+		else if (command.equals("ponderhit"))
+			ponderHit();
+		else if (command.equals("stop"))
+			stopSearch();
+		else if (command.equals("quit"))
+		{
+			stopSearch();
+			send("bye");
+			return false;
+		}
+		else if (!command.isEmpty() && !command.equals("banmoves"))
+			send("info string Unknown command: " + line);
+		return true;
+	}
+
+	/**
+	 * Sets an option, given as "setoption NAME VALUE" (UCCI) or as
+	 * "setoption name NAME value VALUE".
+	 * @param words the words of the command
+	 */
+	private void setOption(String[] words)
+	{
+		String option = "";
+		StringBuilder value = new StringBuilder();
+		for (int word = 1; word < words.length; word++)
+		{
+			if (words[word].equals("name") || words[word].equals("value"))
+				continue;
+			if (option.isEmpty())
+				option = words[word].toLowerCase();
+			else
+			{
+				if (value.length() > 0)
+					value.append(' ');
+				value.append(words[word]);
+			}
+		}
+
+		String setting = value.toString();
+		try
+		{
+			if (option.equals("usemillisec"))
+				useMilliseconds = setting.equalsIgnoreCase("true");
+			else if (option.equals("hashsize"))
+				computer.setHashSize(Integer.parseInt(setting));
+			else if (option.equals("threads"))
+				computer.setThreads(Integer.parseInt(setting));
+			else if (option.equals("bookfiles"))
+				computer.setOpeningBook(setting.isEmpty() ? null : OpeningBook
+						.open(new File(setting)));
+			else if (option.equals("egtbpaths"))
+				computer.setTablebase(setting.isEmpty() ? null : Tablebase
+						.open(new File(setting)));
+			else if (option.equals("pruning"))
+			{
+				computer.setNullMovePruning(!setting.equals("none"));
+				computer.setLateMoveReductions(!setting.equals("none"));
+			}
+			else if (option.equals("randomness"))
+				randomness = !setting.equals("none");
+			else if (option.equals("newgame"))
+				computer.getTranspositionTable().clear();
+			else
+				send("info string Unknown option: " + option);
+		}
+		catch (IOException | IllegalArgumentException e)
+		{
+			send("info string Could not set " + option + ": "
+					+ e.getMessage());
+		}
+	}
+
+	/**
+	 * Sets up the position, given as "position startpos" or "position fen
+	 * FEN", optionally followed by "moves" and the ICCS moves made since.
+	 * @param words the words of the command
+	 */
+	private void setPosition(String[] words)
+	{
+		int word = 1;
+		StringBuilder fen = new StringBuilder();
+		if (word < words.length && words[word].equals("startpos"))
+		{
+			fen.append(Position.START_FEN);
+			word++;
+		}
+		else if (word < words.length && words[word].equals("fen"))
+		{
+			word++;
+			while (word < words.length && !words[word].equals("moves"))
+				fen.append(words[word++]).append(' ');
+		}
+
+		try
+		{
+			Position newPosition = new Position(fen.toString());
+			if (word < words.length && words[word].equals("moves"))
+				for (word++; word < words.length; word++)
+				{
+					int move = newPosition.findMove(words[word]);
+					if (move == 0)
+						throw new IllegalArgumentException("Illegal move: "
+								+ words[word]);
+					newPosition.makeMove(move);
+				}
+
+			// Start again from a copy so that a long game does not use up the
+			// position's move history
+			position = new Position(newPosition.toFen());
+		}
+		catch (IllegalArgumentException e)
+		{
+			send("info string " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Starts searching the position on a new thread with the limits of a go
+	 * command. With no limits it searches until it is stopped.
+	 * @param words the words of the command
+	 */
+	private void go(String[] words)
+	{
+		int depth = Searcher.MAX_PLY - 1;
+		long nodes = 0;
+		long time = 0;
+		long moveTime = 0;
+		long increment = 0;
+		int movesToGo = 0;
+		boolean ponder = false;
+		try
+		{
+			for (int word = 1; word < words.length; word++)
+			{
+				String limit = words[word];
+				if (limit.equals("ponder"))
+					ponder = true;
+				else if (limit.equals("infinite") || limit.equals("draw"))
+					continue;
+				else if (word + 1 < words.length)
+				{
+					String value = words[++word];
+					if (limit.equals("depth"))
+						depth = Integer.parseInt(value);
+					else if (limit.equals("nodes"))
+						nodes = Long.parseLong(value);
+					else if (limit.equals("time"))
+						time = toMilliseconds(value);
+					else if (limit.equals("movetime"))
+						moveTime = Long.parseLong(value);
+					else if (limit.equals("increment"))
+						increment = toMilliseconds(value);
+					else if (limit.equals("movestogo"))
+						movesToGo = Integer.parseInt(value);
+				}
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			send("info string Bad go command: " + e.getMessage());
+			return;
+		}
+
+		// Spread the time left over the moves to go plus the increment
+		long timeLimit = moveTime;
+		if (time > 0)
+		{
+			timeLimit = time / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO)
+					+ increment;
+			timeLimit = Math.max(1, Math.min(timeLimit, time - TIME_MARGIN));
+		}
+
+		computer.setDepth(depth);
+		computer.setNodeLimit(nodes);
+		computer.setTimeLimit(ponder ? 0 : timeLimit);
+		ponderTimeLimit = timeLimit;
+		ponderLatch = ponder ? new CountDownLatch(1) : null;
+
+		final Position root = position;
+		final boolean random = randomness;
+		final long start = System.currentTimeMillis();
+		final CountDownLatch latch = ponderLatch;
+		final AtomicBoolean abort = new AtomicBoolean();
+		searchAbort = abort;
+		computer.setSearchListener(new SearchListener()
+		{
+			public void searchProgress(int depth, int bestMove, int score,
+					int[] principalVariation, long nodes)
+			{
+				long elapsed = System.currentTimeMillis() - start;
+				StringBuilder info = new StringBuilder();
+				info.append("info depth ").append(depth).append(" score ")
+						.append(score).append(" time ").append(elapsed)
+						.append(" nodes ").append(nodes).append(" nps ")
+						.append(nodes * 1000 / Math.max(1, elapsed))
+						.append(" pv");
+				for (int move : principalVariation)
+					info.append(' ').append(Position.toIccs(move));
+				send(info.toString());
+			}
+		});
+		search = new Thread(new Runnable()
+		{
+			public void run()
+			{
+				int move = computer.bestMove(root, random, abort);
+
+				// A ponder search waits for ponderhit or stop before it moves
+				if (latch != null)
+				{
+					try
+					{
+						latch.await();
+					}
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+
+				if (move == 0)
+					send("nobestmove");
+				else if (computer.getPonderMove() != 0)
+					send("bestmove " + Position.toIccs(move) + " ponder "
+							+ Position.toIccs(computer.getPonderMove()));
+				else
+					send("bestmove " + Position.toIccs(move));
+			}
+		}, "UCCI search");
+		search.start();
+	}
+
+	/**
+	 * Tells the ponder search that the opponent played the expected move, so
+	 * that it stops once its time limit has passed.
+	 */
+	private void ponderHit()
+	{
+		if (ponderLatch == null)
+			return;
+		ponderLatch.countDown();
+		ponderLatch = null;
+
+		// Only the ponder search is stopped, even if another has started
+		final AtomicBoolean abort = searchAbort;
+		if (ponderTimeLimit > 0)
+			clock.schedule(new TimerTask()
+			{
+				public void run()
+				{
+					abort.set(true);
+				}
+			}, ponderTimeLimit);
+	}
+
+	/**
+	 * Stops the running search (if any) and waits for it to report its best
+	 * move.
+	 */
+	private void stopSearch()
+	{
+		if (search == null)
+			return;
+		searchAbort.set(true);
+		if (ponderLatch != null)
+		{
+			ponderLatch.countDown();
+			ponderLatch = null;
+		}
+		try
+		{
+			search.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		search = null;
+	}
+
+	/**
+	 * Converts a time from the GUI to milliseconds (UCCI times are in
+	 * seconds unless usemillisec is on).
+	 * @param value the time
+	 * @return the time in milliseconds
+	 */
+	private long toMilliseconds(String value)
+	{
+		if (useMilliseconds)
+			return Long.parseLong(value);
+		return (long) (Double.parseDouble(value) * 1000);
+	}
+
+	/**
+	 * Sends a line to the GUI.
+	 * @param line the line
+	 */
+	private synchronized void send(String line)
+	{
+		out.println(line);
+		out.flush();
+	}
+}
@@ -0,0 +1,29 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for checking whether the player to move next
+ * has any legal moves left, which is done after every move.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+@Name("ChineseChess.WinCheck")
+@Label("Win Check")
+@Category({ "Chinese Chess", "Game" })
+@Description("Checking if the player to move next has lost")
+public class WinCheckEvent extends jdk.jfr.Event
+{
+	@Label("Player")
+	@Description("The colour of the player whose moves were checked")
+	public String player;
+
+	@Label("Pieces Checked")
+	@Description("The pieces whose moves were generated before one was found")
+	public int piecesChecked;
+
+	@Label("Winner Found")
+	public boolean winnerFound;
+}
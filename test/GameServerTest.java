@@ -0,0 +1,40 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the sessions of a GameServer.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class GameServerTest
+{
+	/**
+	 * Plays a game of only the generals, which can never end, for more plies
+	 * than a Position has room for in its move history.
+	 */
+	@Test
+	public void longSession()
+	{
+		GameServer server = new GameServer(1, 1, 0, 0);
+		try
+		{
+			GameServer.Session session = server
+					.newGame("4k4/9/9/9/9/9/9/9/9/3K5 w");
+			for (int move = 0; move < 600; move++)
+			{
+				List<String> legalMoves = session.getLegalMoves();
+				assertFalse(legalMoves.isEmpty());
+				String reply = session.play(legalMoves.get(0)).join();
+				assertFalse(reply.isEmpty());
+			}
+		}
+		finally
+		{
+			server.shutdown();
+		}
+	}
+}
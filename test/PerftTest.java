@@ -0,0 +1,115 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Checks the move generator of Position by counting the leaf nodes of the
+ * legal move tree (perft). The starting position is checked against the
+ * known counts. Other positions are checked against a perft of the Pieces
+ * on a board of ChessPoints, which generate their moves on their own.
+ *
+ * @author Derrick Thai
+ * @version v3.2, Last Updated: October 17, 2026
+ */
+public class PerftTest
+{
+	/**
+	 * Checks the starting position against the known counts.
+	 * @param depth the depth to count to
+	 * @param nodes the known number of leaf nodes
+	 */
+	@ParameterizedTest(name = "start position, depth {0}")
+	@CsvSource({ "1, 44", "2, 1920", "3, 79666", "4, 3290240",
+			"5, 133312995" })
+	public void startPosition(int depth, long nodes)
+	{
+		assertEquals(nodes, Perft.run(new Position(Position.START_FEN),
+				depth, 1, false));
+	}
+
+	/**
+	 * Checks that splitting the root moves across threads gives the same
+	 * count.
+	 * @param depth the depth to count to
+	 * @param nodes the known number of leaf nodes
+	 */
+	@ParameterizedTest(name = "start position in parallel, depth {0}")
+	@CsvSource({ "3, 79666", "4, 3290240" })
+	public void startPositionInParallel(int depth, long nodes)
+	{
+		assertEquals(nodes, Perft.run(new Position(Position.START_FEN),
+				depth, 4, false));
+	}
+
+	/**
+	 * Checks that Position and the Pieces find the same number of leaf nodes
+	 * and that counting leaves the Position unchanged.
+	 * @param fen the FEN of the position
+	 * @param depth the depth to count to
+	 */
+	@ParameterizedTest(name = "{0}, depth {1}")
+	@CsvSource({
+			"r1bakab1r/9/1cn3nc1/p1p1p1p1p/9/2P6/P3P1P1P/1C2C1N2/9/"
+					+ "RNBAKAB1R b, 2",
+			"2bakab2/9/2n1c1n2/p3p1p1p/2p6/6P2/P1P1P3P/2N1C1N2/4A4/"
+					+ "2BAK1B2 w, 2",
+			"r2akab2/9/1cn1b1n2/p1p1p1p1p/9/2P3P2/P3P3P/N1C1B1N2/9/"
+					+ "R2AKAB2 w, 2",
+			"3ak4/4a4/4b4/9/9/9/9/4B4/4A4/2R1KA3 w, 3",
+			"4k4/9/3a5/4p4/9/9/9/4B4/4A4/3NK4 w, 3",
+			"3k5/4a4/5a3/9/2b6/9/9/3C5/4p4/4K4 w, 3",
+			"4k4/9/9/9/9/9/9/9/4c4/3K5 w, 3",
+			"3k5/9/9/9/9/9/9/9/9/4K2R1 b, 3" })
+	public void matchesPieces(String fen, int depth)
+	{
+		Position position = new Position(fen);
+		long nodes = Perft.run(position, depth, 1, false);
+		assertEquals(fen, position.toFen());
+
+		ChessPoint[][] board = new ChessPoint[GamePanel.NO_OF_ROWS]
+				[GamePanel.NO_OF_COLS];
+		for (int row = 0; row < GamePanel.NO_OF_ROWS; row++)
+			for (int col = 0; col < GamePanel.NO_OF_COLS; col++)
+				board[row][col] = new ChessPoint(row, col);
+		ChessPoint[] posOfGeneral = new ChessPoint[2];
+		position.setUpBoard(board, posOfGeneral);
+		assertEquals(nodes, piecePerft(board, position.getSideToMove(),
+				depth));
+	}
+
+	/**
+	 * Counts the leaf nodes with the moves the Pieces generate.
+	 * @param board the board of ChessPoints (left unchanged)
+	 * @param colour the colour to move
+	 * @param depth the depth to count to
+	 * @return the number of leaf nodes
+	 */
+	private static long piecePerft(ChessPoint[][] board, int colour,
+			int depth)
+	{
+		if (depth == 0)
+			return 1;
+
+		List<Piece> pieces = new ArrayList<Piece>();
+		for (ChessPoint[] row : board)
+			for (ChessPoint point : row)
+				if (point.hasPiece() && point.getPiece().colour == colour)
+					pieces.add(point.getPiece());
+
+		long nodes = 0;
+		for (Piece piece : pieces)
+			for (ChessPoint to : piece.generateMoves(true))
+			{
+				Move move = new Move(piece.getPoint(), to, piece,
+						to.getPiece());
+				move.execute();
+				nodes += piecePerft(board, 1 - colour, depth - 1);
+				move.undo();
+			}
+		return nodes;
+	}
+}